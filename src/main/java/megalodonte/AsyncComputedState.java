@@ -0,0 +1,288 @@
+package megalodonte;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Computed state whose computation runs off the calling thread, for
+ * derivations too slow to run inside a dependency's {@code set()}.
+ *
+ * <p>When a dependency changes, the computation is submitted to an
+ * {@link Executor} (by default one virtual thread per task) and the state becomes
+ * {@link Status#PENDING}. The result is delivered through a {@link Scheduler}
+ * (by default {@link Scheduler#fx()}), so subscribers see the value, or the
+ * {@link Status#FAILED failure}, on the owner thread.</p>
+ *
+ * <p>Like a switchMap, only the latest computation counts: a new change
+ * cancels the one still running (interrupting its thread) and a result that
+ * arrives after a newer computation started is discarded. {@link #get()} keeps
+ * returning the last successful value while a new one is pending.</p>
+ *
+ * <p>Dependencies must be given explicitly, since the computation does not run
+ * on the thread that tracks reads. With {@link #of(ReadableState, Function)}
+ * the source value is read on the owner thread and handed to the computation,
+ * which is the safe way to pass inputs to another thread.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * State<Order> order = State.of(Order.EMPTY);
+ *
+ * AsyncComputedState<Price> price = AsyncComputedState.of(order, pricingRules::evaluate);
+ * price.subscribe(p -> totalLabel.setText(p.toString()));
+ * price.status().subscribe(s -> spinner.setVisible(s == AsyncComputedState.Status.PENDING));
+ *
+ * order.set(edited); // returns immediately; the previous evaluation is cancelled
+ * }</pre>
+ *
+ * @param <T> type of computed value
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public final class AsyncComputedState<T> implements ReadableState<T> {
+
+    /**
+     * State of the latest computation.
+     */
+    public enum Status {
+        /** A computation is running; the value is the previous result. */
+        PENDING,
+        /** The value is the result of the latest computation. */
+        READY,
+        /** The latest computation threw; see {@link #getError()}. */
+        FAILED
+    }
+
+    private final Supplier<Callable<T>> prepare;
+    private final Executor executor;
+    private final Scheduler scheduler;
+    private final State<T> value = new State<>(null);
+    private final State<Status> status = new State<>(Status.PENDING);
+    private final List<Subscription> dependencies = new ArrayList<>();
+    private Throwable error;
+    private FutureTask<T> running;
+    private long generation;
+    private boolean wiring;
+    private boolean disposed;
+
+    private AsyncComputedState(Supplier<Callable<T>> prepare, Executor executor, Scheduler scheduler,
+                               ReadableState<?>... deps) {
+        if (executor == null || scheduler == null) {
+            throw new IllegalArgumentException("Executor and scheduler cannot be null");
+        }
+        this.prepare = prepare;
+        this.executor = executor;
+        this.scheduler = scheduler;
+
+        Consumer<Object> onDependencyChange = e -> {
+            if (!wiring) {
+                restart();
+            }
+        };
+        wiring = true;
+        try {
+            for (ReadableState<?> dep : deps) {
+                @SuppressWarnings("unchecked")
+                ReadableState<Object> dependency = (ReadableState<Object>) dep;
+                dependencies.add(dependency.subscribe(onDependencyChange));
+            }
+        } finally {
+            wiring = false;
+        }
+        restart();
+    }
+
+    /**
+     * Creates an async computed state from the value of a source state. The
+     * source is read on the owner thread and its value passed to the
+     * computation, which runs on virtual threads.
+     *
+     * @param <S> type of the source value
+     * @param <T> type of computed value
+     * @param source state the computation depends on
+     * @param compute slow computation from the source value
+     * @return a new AsyncComputedState delivering on the FX thread
+     */
+    public static <S, T> AsyncComputedState<T> of(ReadableState<S> source,
+                                                  Function<? super S, ? extends T> compute) {
+        return of(source, compute, DefaultExecutor.get(), Scheduler.fx());
+    }
+
+    /**
+     * Creates an async computed state from the value of a source state, with
+     * the given executor and result scheduler.
+     *
+     * @param <S> type of the source value
+     * @param <T> type of computed value
+     * @param source state the computation depends on
+     * @param compute slow computation from the source value
+     * @param executor runs the computations
+     * @param scheduler delivers the results on the owner thread
+     * @return a new AsyncComputedState
+     */
+    public static <S, T> AsyncComputedState<T> of(ReadableState<S> source,
+                                                  Function<? super S, ? extends T> compute,
+                                                  Executor executor,
+                                                  Scheduler scheduler) {
+        return new AsyncComputedState<>(() -> {
+            S input = source.get();
+            return () -> compute.apply(input);
+        }, executor, scheduler, source);
+    }
+
+    /**
+     * Creates an async computed state that runs the supplier on virtual threads
+     * whenever one of the dependencies changes. The supplier reads the
+     * dependencies from another thread, so they should hold immutable values.
+     *
+     * @param <T> type of computed value
+     * @param compute slow computation
+     * @param deps states the computation depends on
+     * @return a new AsyncComputedState delivering on the FX thread
+     */
+    public static <T> AsyncComputedState<T> of(Supplier<T> compute, ReadableState<?>... deps) {
+        return of(compute, DefaultExecutor.get(), Scheduler.fx(), deps);
+    }
+
+    /**
+     * Creates an async computed state that runs the supplier on the executor
+     * whenever one of the dependencies changes.
+     *
+     * @param <T> type of computed value
+     * @param compute slow computation
+     * @param executor runs the computations
+     * @param scheduler delivers the results on the owner thread
+     * @param deps states the computation depends on
+     * @return a new AsyncComputedState
+     */
+    public static <T> AsyncComputedState<T> of(Supplier<T> compute, Executor executor, Scheduler scheduler,
+                                               ReadableState<?>... deps) {
+        return new AsyncComputedState<>(() -> compute::get, executor, scheduler, deps);
+    }
+
+    /**
+     * Returns the result of the last successful computation, or null before
+     * the first one completes.
+     *
+     * @return current value
+     */
+    @Override
+    public T get() {
+        return value.get();
+    }
+
+    @Override
+    public boolean isNull() {
+        return get() == null;
+    }
+
+    /**
+     * Subscribes to the results and immediately calls the listener with the
+     * current value. Failed computations do not notify; observe
+     * {@link #status()} for them.
+     *
+     * @param listener to be notified of new results
+     * @return subscription that removes the listener when closed
+     */
+    @Override
+    public Subscription subscribe(Consumer<T> listener) {
+        return value.subscribe(listener);
+    }
+
+    /**
+     * Returns the status of the latest computation as a state, so it can be
+     * observed to show progress or errors.
+     *
+     * @return read-only status state
+     */
+    public ReadableState<Status> status() {
+        return status;
+    }
+
+    /**
+     * Returns whether a computation is running.
+     *
+     * @return true while the status is {@link Status#PENDING}
+     */
+    public boolean isPending() {
+        return status.get() == Status.PENDING;
+    }
+
+    /**
+     * Returns what the latest computation threw.
+     *
+     * @return the error, or null unless the status is {@link Status#FAILED}
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Detaches from the dependencies and cancels the running computation.
+     * Results arriving afterwards are discarded.
+     */
+    public void dispose() {
+        disposed = true;
+        for (Subscription dependency : dependencies) {
+            dependency.close();
+        }
+        dependencies.clear();
+        cancelRunning();
+        generation++;
+    }
+
+    private void restart() {
+        if (disposed) {
+            return;
+        }
+        cancelRunning();
+        long current = ++generation;
+        // Entradas lidas aqui, na thread dona; o cálculo roda no executor
+        Callable<T> work = prepare.get();
+        status.set(Status.PENDING);
+
+        FutureTask<T> task = new FutureTask<>(work) {
+            @Override
+            protected void done() {
+                if (!isCancelled()) {
+                    scheduler.schedule(() -> complete(current, this));
+                }
+            }
+        };
+        running = task;
+        executor.execute(task);
+    }
+
+    private void cancelRunning() {
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    private void complete(long ofGeneration, FutureTask<T> task) {
+        if (ofGeneration != generation) {
+            return; // resultado de um cálculo já substituído
+        }
+        running = null;
+        State.batch(() -> {
+            try {
+                T result = task.get();
+                error = null;
+                value.set(result);
+                status.set(Status.READY);
+            } catch (ExecutionException e) {
+                error = e.getCause();
+                status.set(Status.FAILED);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package megalodonte;
+
+/**
+ * Listener that receives a primitive {@code boolean}, the missing counterpart
+ * of {@link java.util.function.IntConsumer} used by {@link BooleanState}.
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface BooleanConsumer {
+
+    /**
+     * Performs this operation on the given value.
+     *
+     * @param value the input value
+     */
+    void accept(boolean value);
+}
@@ -0,0 +1,136 @@
+package megalodonte;
+
+import java.util.function.Consumer;
+
+/**
+ * Reactive state specialized for a primitive {@code boolean}.
+ *
+ * <p>The value is stored unboxed and listeners subscribed through
+ * {@link #subscribeAsBoolean} receive the raw {@code boolean}. BooleanState is a
+ * {@link ReadableState ReadableState&lt;Boolean&gt;}, so it can be used directly as
+ * the condition of {@link Show}.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * BooleanState expanded = BooleanState.of(false);
+ *
+ * Show.when(expanded, () -> new DetailsPanel());
+ * toggleButton.setOnAction(e -> expanded.toggle());
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public class BooleanState implements ReadableState<Boolean> {
+
+    private boolean value;
+    private final Emitter listeners = new Emitter();
+
+    public BooleanState(boolean initial) {
+        this.value = initial;
+    }
+
+    /**
+     * Creates a new BooleanState with the specified initial value.
+     *
+     * @param initial initial value
+     * @return a new BooleanState instance
+     */
+    public static BooleanState of(boolean initial) {
+        return new BooleanState(initial);
+    }
+
+    /**
+     * Returns the current value without boxing.
+     *
+     * @return current value
+     */
+    public boolean getAsBoolean() {
+        Propagation.read(this);
+        return value;
+    }
+
+    @Override
+    public Boolean get() {
+        return getAsBoolean();
+    }
+
+    @Override
+    public boolean isNull() {
+        return false;
+    }
+
+    /**
+     * Sets a new value and notifies all subscribers if the value changed.
+     *
+     * @param newValue new value to set
+     */
+    public void set(boolean newValue) {
+        if (value == newValue) {
+            return;
+        }
+
+        value = newValue;
+        listeners.publish(newValue);
+    }
+
+    /**
+     * Inverts the current value.
+     */
+    public void toggle() {
+        set(!value);
+    }
+
+    /**
+     * Subscribes to changes with a primitive listener and immediately calls it
+     * with the current value.
+     *
+     * @param listener to be notified of state changes
+     * @return subscription that removes the listener when closed
+     */
+    public Subscription subscribeAsBoolean(BooleanConsumer listener) {
+        Subscription subscription = listeners.add(listener);
+        listener.accept(value);
+        return subscription;
+    }
+
+    @Override
+    public Subscription subscribe(Consumer<Boolean> listener) {
+        Subscription subscription = listeners.add(listener::accept, listener);
+        listener.accept(value);
+        return subscription;
+    }
+
+    /**
+     * Creates a BooleanState holding the inverse of this state.
+     *
+     * @return derived state
+     */
+    public BooleanState not() {
+        BooleanState derived = new BooleanState(!value);
+        subscribeAsBoolean(v -> derived.set(!v));
+        return derived;
+    }
+
+    private static final class Emitter extends ListenerArray<BooleanConsumer> {
+        private boolean pendingValue;
+
+        void publish(boolean newValue) {
+            pendingValue = newValue;
+            if (!Propagation.defer(this)) {
+                Propagation.emit(this);
+            }
+        }
+
+        @Override
+        void flushPending() {
+            boolean current = pendingValue;
+            for (Entry<BooleanConsumer> entry : entries()) {
+                BooleanConsumer listener = entry.listener;
+                if (listener != null) {
+                    listener.accept(current);
+                }
+            }
+        }
+    }
+}
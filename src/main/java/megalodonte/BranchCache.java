@@ -0,0 +1,137 @@
+package megalodonte;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded cache of detached branches used by the keep-alive of conditional
+ * components.
+ *
+ * <p>A branch is {@link #put} when it is unmounted and {@link #take taken}
+ * back when it is mounted again, so only detached branches occupy the cache.
+ * Once it holds more than {@code maxEntries}, the branch detached the longest
+ * time ago is evicted first (LRU). With a time-to-live, a branch that stays
+ * detached longer than it is evicted too: a single timer on the
+ * {@link TimeScheduler}, armed only while the cache holds branches, fires when
+ * the oldest one expires, so a hidden branch is released even if its
+ * component is never shown again.</p>
+ *
+ * @param <K> type of the branch keys
+ * @param <V> type of the cached branches
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class BranchCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final TimeScheduler scheduler;
+    private final LinkedHashMap<K, Detached<V>> entries = new LinkedHashMap<>();
+    private Subscription expiry;
+
+    /**
+     * @param maxEntries maximum number of detached branches kept
+     * @param ttl how long a branch may stay detached, or null to keep it until
+     *            it is evicted by size
+     * @param scheduler clock and timer of the time-to-live
+     * @throws IllegalArgumentException if maxEntries is negative or ttl is not positive
+     */
+    BranchCache(int maxEntries, Duration ttl, TimeScheduler scheduler) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative: " + maxEntries);
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("Time to live must be positive: " + ttl);
+        }
+        if (ttl != null && scheduler == null) {
+            throw new IllegalArgumentException("Time scheduler cannot be null");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl != null ? ttl.toNanos() : -1;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Keeps a branch that was just detached, evicting the oldest ones beyond
+     * the size limit.
+     */
+    void put(K key, V branch) {
+        expire();
+        entries.remove(key);
+        entries.put(key, new Detached<>(branch, ttlNanos < 0 ? 0 : scheduler.nanoTime()));
+        Iterator<Detached<V>> oldest = entries.values().iterator();
+        while (entries.size() > maxEntries) {
+            oldest.next();
+            oldest.remove();
+        }
+        armExpiry();
+    }
+
+    /**
+     * Removes and returns the branch kept for the key.
+     *
+     * @return the cached branch, or null if it was never kept or was evicted
+     */
+    V take(K key) {
+        expire();
+        Detached<V> detached = entries.remove(key);
+        armExpiry();
+        return detached != null ? detached.branch : null;
+    }
+
+    int size() {
+        expire();
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+        armExpiry();
+    }
+
+    private void expire() {
+        if (ttlNanos < 0 || entries.isEmpty()) {
+            return;
+        }
+        long now = scheduler.nanoTime();
+        // Entradas em ordem de desmontagem: as expiradas ficam no começo
+        Iterator<Detached<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext() && now - iterator.next().detachedAt >= ttlNanos) {
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Points the timer at the expiry of the oldest branch, or cancels it when
+     * the cache is empty.
+     */
+    private void armExpiry() {
+        if (ttlNanos < 0) {
+            return;
+        }
+        if (expiry != null) {
+            expiry.close();
+            expiry = null;
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        long due = entries.values().iterator().next().detachedAt + ttlNanos;
+        expiry = scheduler.schedule(Duration.ofNanos(Math.max(0, due - scheduler.nanoTime())), () -> {
+            expiry = null;
+            expire();
+            armExpiry();
+        });
+    }
+
+    private static final class Detached<V> {
+        final V branch;
+        final long detachedAt;
+
+        Detached(V branch, long detachedAt) {
+            this.branch = branch;
+            this.detachedAt = detachedAt;
+        }
+    }
+}
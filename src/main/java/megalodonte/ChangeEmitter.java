@@ -0,0 +1,83 @@
+package megalodonte;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Listener list for {@link ListChange} events.
+ *
+ * <p>The owner {@link #record records} the ranges of each mutation and then
+ * {@link #publish publishes} the resulting list. All the ranges recorded during
+ * a {@link Propagation} wave are delivered together, as a single change, when
+ * the wave ends.</p>
+ *
+ * @param <E> type of elements in the list
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class ChangeEmitter<E> extends ListenerArray<Consumer<? super ListChange<E>>> {
+
+    private List<E> previous;
+    private List<E> current;
+    private ArrayList<ListChange.Range<E>> ranges;
+
+    /**
+     * Returns whether ranges must be recorded: someone listens, or a change
+     * already started in this wave must stay complete.
+     *
+     * @return true if the owner should record its ranges
+     */
+    boolean isObserved() {
+        return ranges != null || !isEmpty();
+    }
+
+    /**
+     * Adds a range to the change being built.
+     *
+     * @param before list before the mutation, kept only for the first range
+     * @param range range to add
+     */
+    void record(List<E> before, ListChange.Range<E> range) {
+        if (ranges == null) {
+            previous = before != null ? before : PersistentVector.empty();
+            ranges = new ArrayList<>();
+        }
+        ranges.add(range);
+    }
+
+    /**
+     * Delivers the recorded ranges now, or at the end of the current wave.
+     * Does nothing if no range was recorded.
+     *
+     * @param after list after the recorded ranges
+     */
+    void publish(List<E> after) {
+        if (ranges == null) {
+            return;
+        }
+        current = after != null ? after : PersistentVector.empty();
+        if (!Propagation.defer(this)) {
+            Propagation.emit(this);
+        }
+    }
+
+    @Override
+    void flushPending() {
+        ListChange<E> change = new ListChange<>(previous, current, ranges);
+        discardPending();
+        for (Entry<Consumer<? super ListChange<E>>> entry : entries()) {
+            Consumer<? super ListChange<E>> listener = entry.listener;
+            if (listener != null) {
+                listener.accept(change);
+            }
+        }
+    }
+
+    @Override
+    void discardPending() {
+        previous = null;
+        current = null;
+        ranges = null;
+    }
+}
@@ -0,0 +1,140 @@
+package megalodonte;
+
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import megalodonte.components.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keeps the children of a JavaFX {@link Pane} in sync with a
+ * {@link ForEachState}, patching them with the ranges of each
+ * {@link ListChange} instead of replacing all of them.
+ *
+ * <p>A change made of one range is patched in place, touching only the nodes
+ * involved: {@code add(i)}/{@code addAll(i, nodes)} for added components,
+ * {@code remove(from, to)} for removed ones, {@code set(i)} for a replaced
+ * component, and a removal followed by an insertion of the same nodes for a
+ * move, such as dragging one row to another place. A change with several
+ * ranges, such as a keyed reorder, is applied with one {@code setAll} of the
+ * resulting children, so it fires one {@code ListChangeListener} event and
+ * one CSS and layout pass instead of one per range.</p>
+ *
+ * <p>The components occupy the children starting at the index the pane had as
+ * its size when it was bound, so children added before keep their place.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * VBox box = new VBox(new Label("Products"));
+ * ForEachState<Product, ProductRow> rows = ForEachState.of(products, Product::id, ProductRow::new);
+ *
+ * Subscription binding = ChildrenBinding.bind(box, rows);
+ *
+ * products.add(new Product(...)); // one add(i) on box.getChildren()
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public final class ChildrenBinding {
+
+    private ChildrenBinding() {
+    }
+
+    /**
+     * Binds the children of the pane to the nodes of the components.
+     *
+     * @param pane pane whose children are patched
+     * @param forEachState components to display
+     * @return subscription that stops the patching when closed
+     */
+    public static Subscription bind(Pane pane, ForEachState<?, ? extends Component> forEachState) {
+        return bind(pane, forEachState, Component::getNode);
+    }
+
+    /**
+     * Binds the children of the pane to the nodes obtained from the components.
+     *
+     * @param <C> type of the components
+     * @param pane pane whose children are patched
+     * @param forEachState components to display
+     * @param toNode returns the node of a component
+     * @return subscription that stops the patching when closed
+     */
+    public static <C> Subscription bind(Pane pane, ForEachState<?, C> forEachState,
+                                        Function<? super C, ? extends Node> toNode) {
+        ObservableList<Node> children = pane.getChildren();
+        int offset = children.size();
+        return forEachState.subscribeChanges(change -> apply(change, children, offset, toNode));
+    }
+
+    private static <C> void apply(ListChange<C> change, ObservableList<Node> children, int offset,
+                                  Function<? super C, ? extends Node> toNode) {
+        List<ListChange.Range<C>> ranges = change.getRanges();
+        if (ranges.size() != 1) {
+            replaceAll(change, children, offset, toNode);
+            return;
+        }
+
+        ListChange.Range<C> range = ranges.get(0);
+        int from = offset + range.getFrom();
+        int removed = range.getRemoved().size();
+        List<Node> added = nodes(range.getAdded(), toNode);
+
+        switch (range.getType()) {
+            case ADDED:
+                insert(children, from, added);
+                break;
+            case REMOVED:
+                children.remove(from, from + removed);
+                break;
+            case MOVED:
+                children.remove(from, from + removed);
+                insert(children, offset + range.getTo(), added);
+                break;
+            default:
+                if (added.size() == 1) {
+                    children.set(from, added.get(0));
+                } else {
+                    children.remove(from, from + removed);
+                    insert(children, from, added);
+                }
+        }
+    }
+
+    /**
+     * Swaps the bound children for the nodes of the new list with a single
+     * {@code setAll}, keeping the children before and after them.
+     */
+    private static <C> void replaceAll(ListChange<C> change, ObservableList<Node> children, int offset,
+                                       Function<? super C, ? extends Node> toNode) {
+        if (change.getRanges().isEmpty()) {
+            return;
+        }
+        int end = offset + change.getPrevious().size();
+        List<Node> result = new ArrayList<>(children.size() - change.getPrevious().size() + change.getList().size());
+        result.addAll(children.subList(0, offset));
+        result.addAll(nodes(change.getList(), toNode));
+        result.addAll(children.subList(end, children.size()));
+        children.setAll(result);
+    }
+
+    private static void insert(ObservableList<Node> children, int index, List<Node> nodes) {
+        if (nodes.size() == 1) {
+            children.add(index, nodes.get(0));
+        } else if (!nodes.isEmpty()) {
+            children.addAll(index, nodes);
+        }
+    }
+
+    private static <C> List<Node> nodes(List<C> components, Function<? super C, ? extends Node> toNode) {
+        List<Node> nodes = new ArrayList<>(components.size());
+        for (C component : components) {
+            nodes.add(toNode.apply(component));
+        }
+        return nodes;
+    }
+}
@@ -1,6 +1,9 @@
 package megalodonte;
 
-import java.util.List;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -9,8 +12,27 @@ import java.util.function.Supplier;
  * ComputedState is useful for derived values that depend on other states.
  * 
  * <p>ComputedState automatically subscribes to its dependencies and
- * recalculates when any of them change. The computation is lazy
- * and cached until dependencies change.</p>
+ * recalculates when any of them change. The value is cached until
+ * dependencies change. States created with {@link #of} recalculate eagerly;
+ * states created with {@link #lazy} only recalculate when read or observed.</p>
+ *
+ * <p>Propagation is glitch-free: a change only marks dependent computed states
+ * as dirty, and they are recalculated once each, from the lowest to the highest
+ * in the dependency graph. A computed state reached through several paths from
+ * the same root is therefore recomputed once per change and its subscribers
+ * never observe an intermediate value.</p>
+ *
+ * <p>When no dependencies are given, they are tracked automatically: every
+ * state read through {@code get()} while the computation runs becomes a
+ * dependency. Tracking is redone on each recalculation, so a state read only
+ * in a branch that is no longer taken stops triggering work.</p>
+ *
+ * <p>Computed states created with {@link #pure} declare their computation free
+ * of side effects and safe to run on any thread. Once a
+ * {@link #setParallelPool parallel pool} is set, the pure computed states
+ * that a change makes dirty at the same height of the dependency graph are
+ * computed in parallel on it; their subscribers are still notified on the
+ * thread that made the change, in the same order as without the pool.</p>
  * 
  * <h2>Example Usage:</h2>
  * <pre>{@code
@@ -26,6 +48,9 @@ import java.util.function.Supplier;
  * fullName.subscribe(name -> System.out.println("Full name: " + name));
  * 
  * firstName.set("Jane"); // Automatically triggers fullName update
+ *
+ * // Same computed state with dependencies tracked automatically
+ * ComputedState<String> tracked = ComputedState.of(() -> firstName.get() + " " + lastName.get());
  * }</pre>
  * 
  * @param <T> type of computed value
@@ -35,37 +60,208 @@ import java.util.function.Supplier;
 public class ComputedState<T> implements ReadableState<T> {
 
     private T value;
+    private final Supplier<T> compute;
+    private final boolean lazy;
+    private final boolean tracked;
+    private boolean stale;
+    private boolean wiring;
+    private Map<ReadableState<?>, Subscription> dependencies = new IdentityHashMap<>();
+    private final Consumer<Object> onDependencyChange;
+    private final Propagation.Computation node;
+    // Resultado do cálculo paralelo, publicado depois na thread dona
+    private T evaluated;
+    private Throwable failure;
 
     private ComputedState(Supplier<T> compute,
+                           boolean lazy,
+                           boolean tracked,
+                           boolean pure,
                            ReadableState<?>... deps) {
+        this.compute = compute;
+        this.lazy = lazy;
+        this.tracked = tracked;
 
-        Runnable recompute = () -> {
-            T newValue = compute.get();
-            if (value == null || !value.equals(newValue)) {
-                value = newValue;
-                listeners.forEach(l -> l.accept(value));
+        node = new Propagation.Computation() {
+            @Override
+            void recompute() {
+                stale = false;
+                update(evaluate());
+            }
+
+            @Override
+            void evaluateInParallel() {
+                try {
+                    evaluated = compute.get();
+                } catch (Throwable e) {
+                    failure = e;
+                }
+            }
+
+            @Override
+            void publishEvaluated() {
+                stale = false;
+                T newValue = evaluated;
+                Throwable thrown = failure;
+                evaluated = null;
+                failure = null;
+                if (thrown instanceof Error) {
+                    throw (Error) thrown;
+                }
+                if (thrown != null) {
+                    throw (RuntimeException) thrown;
+                }
+                update(newValue);
+            }
+
+            @Override
+            void discardEvaluated() {
+                evaluated = null;
+                failure = null;
+            }
+        };
+        node.parallel = pure;
+
+        // O recálculo não é feito no listener: o nó é marcado como sujo e
+        // recalculado uma única vez, por altura, ao final da propagação
+        onDependencyChange = e -> {
+            if (wiring) {
+                return;
+            }
+            if (this.lazy && listeners.isEmpty()) {
+                // Sem observadores: só invalida, o cálculo fica para o próximo get()
+                stale = true;
+            } else {
+                Propagation.markDirty(node);
             }
         };
 
         for (ReadableState<?> dep : deps) {
-            dep.subscribe(e -> recompute.run());
+            if (!dependencies.containsKey(dep)) {
+                dependencies.put(dep, subscribeTo(dep));
+            }
         }
+        updateHeight();
 
-        recompute.run();
+        if (lazy) {
+            stale = true;
+        } else {
+            node.recompute();
+        }
+    }
+
+    private void update(T newValue) {
+        if (value == null || !value.equals(newValue)) {
+            value = newValue;
+            listeners.publish(value);
+        }
+    }
+
+    private static int heightOf(ReadableState<?> state) {
+        return state instanceof ComputedState<?> ? ((ComputedState<?>) state).node.height : 0;
     }
 
-    private final List<Consumer<T>> listeners = new java.util.ArrayList<>();
+    private final Listeners<T> listeners = new Listeners<>();
+
+    @SuppressWarnings("unchecked")
+    private Subscription subscribeTo(ReadableState<?> dep) {
+        Subscription subscription;
+        wiring = true;
+        try {
+            // O valor entregue pelo subscribe não é leitura de quem está sendo rastreado
+            subscription = Propagation.untracked(() -> ((ReadableState<Object>) dep).subscribe(onDependencyChange));
+        } finally {
+            wiring = false;
+        }
+        if (!(dep instanceof ComputedState<?>)) {
+            return subscription;
+        }
+        Propagation.Computation upstream = ((ComputedState<?>) dep).node;
+        upstream.dependents.add(node);
+        return () -> {
+            subscription.close();
+            upstream.dependents.remove(node);
+        };
+    }
+
+    /**
+     * Recalculates the height from the current dependencies. A height that
+     * rises is pushed to the dependents, so they keep being recomputed after
+     * this state. The height never falls, since a higher one is still a valid order.
+     */
+    private void updateHeight() {
+        int height = 1;
+        for (ReadableState<?> dep : dependencies.keySet()) {
+            height = Math.max(height, heightOf(dep) + 1);
+        }
+        Propagation.raiseHeight(node, height);
+    }
+
+    /**
+     * Runs the computation. In tracked mode the states read during the run
+     * replace the previous dependencies.
+     */
+    private T evaluate() {
+        if (!tracked) {
+            return compute.get();
+        }
+
+        ArrayList<ReadableState<?>> reads = new ArrayList<>();
+        T result = Propagation.track(compute, reads);
+
+        Map<ReadableState<?>, Subscription> previous = dependencies;
+        Map<ReadableState<?>, Subscription> current = new IdentityHashMap<>();
+        for (ReadableState<?> dep : reads) {
+            if (dep == this) {
+                continue;
+            }
+            Subscription subscription = previous.remove(dep);
+            current.put(dep, subscription != null ? subscription : subscribeTo(dep));
+        }
+        for (Subscription unused : previous.values()) {
+            unused.close();
+        }
+        dependencies = current;
+        updateHeight();
+
+        return result;
+    }
 
     @Override
     public T get() {
+        Propagation.read(this);
+        if (stale) {
+            stale = false;
+            value = evaluate();
+        }
         return value;
     }
 
     @Override
-    public void subscribe(Consumer<T> listener) {
-        listeners.add(listener);
-        ListenerManager.register(listener);
-        listener.accept(value);
+    public Subscription subscribe(Consumer<T> listener) {
+        Subscription subscription = listeners.add(listener);
+        listener.accept(get());
+        return subscription;
+    }
+
+    /**
+     * Returns whether the cached value is out of date and will be recomputed on
+     * the next {@link #get()}. Only lazy computed states without subscribers
+     * become stale.
+     *
+     * @return true if the value needs to be recomputed
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Returns how many states this computed state currently depends on. In
+     * tracked mode the number reflects the last recalculation.
+     *
+     * @return number of dependencies
+     */
+    public int getDependencyCount() {
+        return dependencies.size();
     }
 
     @Override
@@ -73,6 +269,34 @@ public class ComputedState<T> implements ReadableState<T> {
         return get() == null;
     }
 
+    /**
+     * Detaches this computed state from its dependencies. After disposal the
+     * value is no longer recalculated and the dependencies stop referencing it.
+     */
+    public void dispose() {
+        for (Subscription dependency : dependencies.values()) {
+            dependency.close();
+        }
+        dependencies = new IdentityHashMap<>();
+    }
+
+    /**
+     * Creates a new computed state whose dependencies are tracked automatically:
+     * every state read through {@code get()} during the computation becomes a
+     * dependency, and the set is rebuilt on each recalculation.
+     *
+     * <p>Only states from this library are tracked. A {@link ReadableState}
+     * implemented elsewhere must be passed explicitly to
+     * {@link #of(Supplier, ReadableState[])}.</p>
+     *
+     * @param <T> type of computed value
+     * @param compute function that computes the value
+     * @return a new ComputedState instance
+     */
+    public static <T> ComputedState<T> of(Supplier<T> compute) {
+        return new ComputedState<>(compute, false, true, false);
+    }
+
     /**
      * Creates a new computed state with the specified computation and dependencies.
      * 
@@ -83,6 +307,88 @@ public class ComputedState<T> implements ReadableState<T> {
      */
     public static <T> ComputedState<T> of(Supplier<T> compute,
                                            ReadableState<?>... deps) {
-        return new ComputedState<>(compute, deps);
+        return new ComputedState<>(compute, false, deps.length == 0, false, deps);
+    }
+
+    /**
+     * Creates a computed state whose computation is pure: it only reads the
+     * given dependencies, has no side effects and is safe to run on any thread.
+     * While a {@link #setParallelPool parallel pool} is set, it may be
+     * recomputed on the pool together with the other pure computed states at
+     * the same height; its subscribers are still notified on the thread that
+     * changed the dependency.
+     *
+     * <p>Dependencies must be given explicitly, since reads on a pool thread
+     * are not tracked.</p>
+     *
+     * <pre>{@code
+     * ComputedState.setParallelPool(ForkJoinPool.commonPool());
+     *
+     * ComputedState<BigDecimal> revenue = ComputedState.pure(() -> sum(sales.get()), sales);
+     * ComputedState<BigDecimal> margin = ComputedState.pure(() -> margin(sales.get()), sales);
+     * sales.set(latest); // revenue and margin are computed at the same time
+     * }</pre>
+     *
+     * @param <T> type of computed value
+     * @param compute side-effect free function that computes the value
+     * @param deps states this computed state depends on
+     * @return a new pure ComputedState instance
+     * @throws IllegalArgumentException if no dependency is given
+     */
+    public static <T> ComputedState<T> pure(Supplier<T> compute,
+                                             ReadableState<?>... deps) {
+        if (deps.length == 0) {
+            throw new IllegalArgumentException("Pure computed states need explicit dependencies");
+        }
+        return new ComputedState<>(compute, false, false, true, deps);
+    }
+
+    /**
+     * Sets the pool on which pure computed states at the same height are
+     * recomputed in parallel. The default, null, recomputes every computed
+     * state on the thread that made the change.
+     *
+     * @param pool pool for parallel recomputation, or null to disable it
+     */
+    public static void setParallelPool(ForkJoinPool pool) {
+        Propagation.parallelPool = pool;
+    }
+
+    /**
+     * Returns the pool used for parallel recomputation.
+     *
+     * @return the pool, or null if parallel recomputation is disabled
+     */
+    public static ForkJoinPool getParallelPool() {
+        return Propagation.parallelPool;
+    }
+
+    /**
+     * Creates a lazy computed state. Nothing is computed at creation; a change in
+     * a dependency only marks the value as stale, and the computation runs on the
+     * next {@link #get()} or when a subscriber is attached. While it has no
+     * subscribers a lazy computed state costs nothing but a flag per change.
+     *
+     * <p>Once subscribed, it behaves like {@link #of} so subscribers keep being
+     * notified on every change. Without dependencies, they are tracked
+     * automatically on each computation.</p>
+     *
+     * <pre>{@code
+     * ComputedState<BigDecimal> total = ComputedState.lazy(
+     *     () -> items.get().stream().map(Item::price).reduce(BigDecimal.ZERO, BigDecimal::add),
+     *     items
+     * );
+     * items.add(item);   // only marks total as stale
+     * total.get();       // computes now
+     * }</pre>
+     *
+     * @param <T> type of computed value
+     * @param compute function that computes the value
+     * @param deps states this computed state depends on
+     * @return a new lazy ComputedState instance
+     */
+    public static <T> ComputedState<T> lazy(Supplier<T> compute,
+                                             ReadableState<?>... deps) {
+        return new ComputedState<>(compute, true, deps.length == 0, false, deps);
     }
-}
\ No newline at end of file
+}
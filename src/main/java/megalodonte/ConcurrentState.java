@@ -0,0 +1,252 @@
+package megalodonte;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe, lock-free variant of {@link State}.
+ *
+ * <p>The value is a volatile field updated with compare-and-set through a
+ * {@link VarHandle}, so {@link #set}, {@link #compareAndSet} and
+ * {@link #updateAndGet} can be called from any number of threads without a
+ * lock. The listeners live in a copy-on-write array that is also replaced by
+ * compare-and-set: subscribing or unsubscribing never blocks a set, and an
+ * emission walks the array it read, never throwing
+ * {@code ConcurrentModificationException}.</p>
+ *
+ * <p>Subscribers are notified on the thread whose update changed the value,
+ * so sets racing on different threads may notify in any order. To get the
+ * latest value on a single thread, {@link #deliverOn deliver on} a
+ * {@link Scheduler}, e.g. {@link Scheduler#fx()}. Notifications are not
+ * deferred by {@link State#batch}.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * ConcurrentState<Long> processed = ConcurrentState.of(0L).deliverOn(Scheduler.fx());
+ * processed.subscribe(count -> progressLabel.setText(count + " rows"));
+ *
+ * // any number of worker threads
+ * processed.updateAndGet(count -> count + 1);
+ * }</pre>
+ *
+ * @param <T> type of value held by this state
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public final class ConcurrentState<T> implements ReadableState<T> {
+
+    private static final VarHandle VALUE;
+    private static final VarHandle LISTENERS;
+    private static final Entry<?>[] EMPTY = new Entry<?>[0];
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUE = lookup.findVarHandle(ConcurrentState.class, "value", Object.class);
+            LISTENERS = lookup.findVarHandle(ConcurrentState.class, "listeners", Entry[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile T value;
+    @SuppressWarnings("unchecked")
+    private volatile Entry<T>[] listeners = (Entry<T>[]) EMPTY;
+    private volatile ScheduledDelivery<T> delivery;
+
+    public ConcurrentState(T initial) {
+        this.value = initial;
+    }
+
+    /**
+     * Creates a new ConcurrentState with the specified initial value.
+     *
+     * @param <T> type of value
+     * @param initial initial value
+     * @return a new ConcurrentState instance
+     */
+    public static <T> ConcurrentState<T> of(T initial) {
+        return new ConcurrentState<>(initial);
+    }
+
+    /**
+     * Makes the subscribers be notified through the scheduler instead of on the
+     * updating thread. Updates made before the scheduler runs are coalesced and
+     * only the latest value is delivered.
+     *
+     * @param scheduler scheduler of the notifications, or null to notify on the updating thread
+     * @return this state, for chaining
+     */
+    public ConcurrentState<T> deliverOn(Scheduler scheduler) {
+        delivery = scheduler != null ? new ScheduledDelivery<>(scheduler, this::emit) : null;
+        return this;
+    }
+
+    /**
+     * Returns the current value of this state.
+     *
+     * @return current value
+     */
+    @Override
+    public T get() {
+        Propagation.read(this);
+        return value;
+    }
+
+    @Override
+    public boolean isNull() {
+        return get() == null;
+    }
+
+    /**
+     * Sets a new value and notifies the subscribers if it is not equal to the
+     * value it replaced.
+     *
+     * @param newValue new value to set
+     */
+    @SuppressWarnings("unchecked")
+    public void set(T newValue) {
+        T previous = (T) VALUE.getAndSet(this, newValue);
+        if (!Objects.equals(previous, newValue)) {
+            publish(newValue);
+        }
+    }
+
+    /**
+     * Sets the new value only if the current one is the same instance as
+     * {@code expected}.
+     *
+     * @param expected value the state must hold, compared by identity
+     * @param newValue new value to set
+     * @return true if the value was set
+     */
+    public boolean compareAndSet(T expected, T newValue) {
+        if (!VALUE.compareAndSet(this, expected, newValue)) {
+            return false;
+        }
+        if (!Objects.equals(expected, newValue)) {
+            publish(newValue);
+        }
+        return true;
+    }
+
+    /**
+     * Atomically replaces the value with the result of the function, retrying
+     * if another thread changed it in between. The function may therefore run
+     * more than once and must not have side effects.
+     *
+     * <pre>{@code
+     * counter.updateAndGet(n -> n + 1);
+     * }</pre>
+     *
+     * @param updater computes the new value from the current one
+     * @return the new value
+     */
+    @SuppressWarnings("unchecked")
+    public T updateAndGet(UnaryOperator<T> updater) {
+        while (true) {
+            T previous = (T) VALUE.getVolatile(this);
+            T next = updater.apply(previous);
+            if (VALUE.compareAndSet(this, previous, next)) {
+                if (!Objects.equals(previous, next)) {
+                    publish(next);
+                }
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Subscribes to changes and immediately calls the listener with the current value.
+     * May be called from any thread, also while other threads update the state.
+     *
+     * @param listener to be notified of changes
+     * @return subscription that removes the listener when closed
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Subscription subscribe(Consumer<T> listener) {
+        Entry<T> entry = new Entry<>(this, listener);
+        while (true) {
+            Entry<T>[] current = listeners;
+            Entry<T>[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = entry;
+            if (LISTENERS.compareAndSet(this, current, next)) {
+                break;
+            }
+        }
+        ListenerManager.registerListener(listener);
+        listener.accept(value);
+        return entry;
+    }
+
+    int listenerCount() {
+        return listeners.length;
+    }
+
+    private void publish(T newValue) {
+        ScheduledDelivery<T> scheduled = delivery;
+        if (scheduled != null) {
+            scheduled.offer(newValue);
+        } else {
+            emit(newValue);
+        }
+    }
+
+    private void emit(T newValue) {
+        for (Entry<T> entry : listeners) {
+            Consumer<T> listener = entry.listener;
+            if (listener != null) {
+                listener.accept(newValue);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean remove(Entry<T> entry) {
+        while (true) {
+            Entry<T>[] current = listeners;
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == entry) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+            Entry<T>[] next = (Entry<T>[]) new Entry<?>[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, next.length - index);
+            if (LISTENERS.compareAndSet(this, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static final class Entry<T> implements Subscription {
+        private final ConcurrentState<T> owner;
+        private final Consumer<T> registered;
+        volatile Consumer<T> listener;
+
+        Entry(ConcurrentState<T> owner, Consumer<T> listener) {
+            this.owner = owner;
+            this.registered = listener;
+            this.listener = listener;
+        }
+
+        @Override
+        public void close() {
+            // Emissões em andamento deixam de chamar o listener imediatamente
+            listener = null;
+            if (owner.remove(this)) {
+                ListenerManager.unregisterListener(registered);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package megalodonte;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor used for work taken off the owner thread, such as
+ * {@link AsyncComputedState} computations and {@link ReadableState#toPublisher()}
+ * deliveries. Runs one virtual thread per task.
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class DefaultExecutor {
+
+    private static final Executor INSTANCE = Executors.newVirtualThreadPerTaskExecutor();
+
+    private DefaultExecutor() {
+    }
+
+    static Executor get() {
+        return INSTANCE;
+    }
+}
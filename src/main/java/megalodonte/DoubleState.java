@@ -0,0 +1,209 @@
+package megalodonte;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Reactive state specialized for a primitive {@code double}.
+ *
+ * <p>The value is stored unboxed, equality follows {@link Double#equals} (so
+ * {@code NaN} equals itself) and listeners subscribed through
+ * {@link #subscribeAsDouble} receive the raw {@code double}, so progress values
+ * and amounts can change without allocating.
+ * DoubleState is still a {@link ReadableState ReadableState&lt;Double&gt;}:
+ * {@link #get()} and {@link #subscribe(Consumer)} box the value only for the
+ * callers that use them.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * DoubleState progress = DoubleState.of(0.0);
+ * progress.subscribeAsDouble(progressBar::setProgress);
+ *
+ * progress.set(0.5);
+ *
+ * BooleanState done = progress.mapToBoolean(p -> p >= 1.0);
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public class DoubleState implements ReadableState<Double> {
+
+    private double value;
+    private final Emitter listeners = new Emitter();
+
+    public DoubleState(double initial) {
+        this.value = initial;
+    }
+
+    /**
+     * Creates a new DoubleState with the specified initial value.
+     *
+     * @param initial initial value
+     * @return a new DoubleState instance
+     */
+    public static DoubleState of(double initial) {
+        return new DoubleState(initial);
+    }
+
+    /**
+     * Returns the current value without boxing.
+     *
+     * @return current value
+     */
+    public double getAsDouble() {
+        Propagation.read(this);
+        return value;
+    }
+
+    @Override
+    public Double get() {
+        return getAsDouble();
+    }
+
+    @Override
+    public boolean isNull() {
+        return false;
+    }
+
+    /**
+     * Sets a new value and notifies all subscribers if the value changed.
+     *
+     * @param newValue new value to set
+     */
+    public void set(double newValue) {
+        if (Double.doubleToLongBits(value) == Double.doubleToLongBits(newValue)) {
+            return;
+        }
+
+        value = newValue;
+        listeners.publish(newValue);
+    }
+
+    /**
+     * Adds the delta to the current value.
+     *
+     * @param delta amount to add, may be negative
+     */
+    public void add(double delta) {
+        set(value + delta);
+    }
+
+    /**
+     * Replaces the value with the result of the updater.
+     *
+     * @param updater function applied to the current value
+     */
+    public void update(DoubleUnaryOperator updater) {
+        set(updater.applyAsDouble(value));
+    }
+
+    /**
+     * Subscribes to changes with a primitive listener and immediately calls it
+     * with the current value.
+     *
+     * @param listener to be notified of state changes
+     * @return subscription that removes the listener when closed
+     */
+    public Subscription subscribeAsDouble(DoubleConsumer listener) {
+        Subscription subscription = listeners.add(listener);
+        listener.accept(value);
+        return subscription;
+    }
+
+    @Override
+    public Subscription subscribe(Consumer<Double> listener) {
+        Subscription subscription = listeners.add(listener::accept, listener);
+        listener.accept(value);
+        return subscription;
+    }
+
+    /**
+     * Creates a LongState that follows this state through the mapper.
+     *
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public LongState mapToLong(DoubleToLongFunction mapper) {
+        LongState derived = new LongState(mapper.applyAsLong(value));
+        subscribeAsDouble(v -> derived.set(mapper.applyAsLong(v)));
+        return derived;
+    }
+
+    /**
+     * Creates an IntState that follows this state through the mapper.
+     *
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public IntState mapToInt(DoubleToIntFunction mapper) {
+        IntState derived = new IntState(mapper.applyAsInt(value));
+        subscribeAsDouble(v -> derived.set(mapper.applyAsInt(v)));
+        return derived;
+    }
+
+    /**
+     * Creates a DoubleState that follows this state through the mapper.
+     *
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public DoubleState mapToDouble(DoubleUnaryOperator mapper) {
+        DoubleState derived = new DoubleState(mapper.applyAsDouble(value));
+        subscribeAsDouble(v -> derived.set(mapper.applyAsDouble(v)));
+        return derived;
+    }
+
+    /**
+     * Creates a BooleanState that follows this state through the predicate.
+     *
+     * @param predicate predicate applied to each value
+     * @return derived state
+     */
+    public BooleanState mapToBoolean(DoublePredicate predicate) {
+        BooleanState derived = new BooleanState(predicate.test(value));
+        subscribeAsDouble(v -> derived.set(predicate.test(v)));
+        return derived;
+    }
+
+    /**
+     * Creates an object state that follows this state through the mapper,
+     * without boxing the source value.
+     *
+     * @param <R> type of the mapped value
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public <R> ReadableState<R> mapToObj(DoubleFunction<R> mapper) {
+        State<R> derived = new State<>(mapper.apply(value));
+        subscribeAsDouble(v -> derived.set(mapper.apply(v)));
+        return derived;
+    }
+
+    private static final class Emitter extends ListenerArray<DoubleConsumer> {
+        private double pendingValue;
+
+        void publish(double newValue) {
+            pendingValue = newValue;
+            if (!Propagation.defer(this)) {
+                Propagation.emit(this);
+            }
+        }
+
+        @Override
+        void flushPending() {
+            double current = pendingValue;
+            for (Entry<DoubleConsumer> entry : entries()) {
+                DoubleConsumer listener = entry.listener;
+                if (listener != null) {
+                    listener.accept(current);
+                }
+            }
+        }
+    }
+}
@@ -1,18 +1,56 @@
 package megalodonte;
 
+import java.util.ArrayDeque;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * Reactive component renderer that automatically updates a list of components
  * when a state list changes. Provides declarative rendering similar to Jetpack Compose.
- * 
- * <p>ForEachState manages component reconciliation without diff, virtualization,
- * or pagination. It follows a simple strategy: when the state changes, it creates
- * new components for new items, removes components for deleted items, and replaces
- * components for modified items.</p>
- * 
+ *
+ * <p>ForEachState manages component reconciliation without pagination. By
+ * default items are matched by position: when the state changes,
+ * it creates new components for new items, removes components for deleted items,
+ * and replaces components for modified items. When the state is a
+ * {@link ListState}, its {@link ListChange ranges} are followed directly, so an
+ * insert, removal or move only touches the components involved.</p>
+ *
+ * <p>With a key extractor, see {@link #of(ReadableState, Function, Function)},
+ * items are matched by key instead: components of items that were inserted,
+ * removed or reordered are kept, and only the items whose key is new get a new
+ * component. Reordering moves only the components outside the longest
+ * subsequence that kept its order.</p>
+ *
+ * <p>A {@link #windowed windowed} ForEachState only keeps components for the
+ * items around the viewport reported with {@link #setViewport}, plus an
+ * overscan margin on each side. {@link #getComponents()} then holds the
+ * components of that window, which starts at {@link #getWindowStart()}, and
+ * scrolling creates and drops components only at its edges.</p>
+ *
+ * <p>With {@link #recycling recycling} enabled, components are reused instead
+ * of created: a component whose item changed is rebound to the new item, and
+ * the components of removed or scrolled-out items wait in a bounded pool until
+ * a new item needs one.</p>
+ *
+ * <p>A {@link #chunked chunked} ForEachState spreads a large reconciliation over
+ * several frames: each frame creates only the components that fit in a time
+ * budget, the items reconciled so far are shown as a committed prefix, and a
+ * new change of the list abandons the unfinished one.</p>
+ *
+ * <p>Every reconciliation that changes the components is also published as a
+ * {@link ListChange} of components through {@link #subscribeChanges}, so a view
+ * can patch its children instead of replacing all of them.</p>
+ *
  * <h2>Example Usage:</h2>
  * <pre>{@code
  * // Create state with list of products
@@ -20,86 +58,1089 @@ import java.util.function.Function;
  *     new Product("Coffee", 15.0),
  *     new Product("Bread", 8.0)
  * ));
- * 
+ *
  * // Create ForEachState that renders each product as a Button
  * ForEachState<Product, Button> forEachState = ForEachState.of(
  *     productsState,
  *     product -> new Button(product.name + " - $" + product.price)
  * );
- * 
+ *
  * // Use in UI components
  * Column.of()
  *     .c_child(new Text("Products"))
  *     .items(forEachState) // Declarative reactive rendering
  *     .c_child(new Button("Add Product", () -> productsState.add(new Item())));
+ *
+ * // Keyed: sorting or removing the first product keeps the other buttons
+ * ForEachState<Product, Button> keyed = ForEachState.of(
+ *     productsState,
+ *     product -> product.id,
+ *     product -> new Button(product.name)
+ * );
+ *
+ * // Windowed: only the visible rows plus 10 on each side exist
+ * ForEachState<Product, Row> catalog = ForEachState.windowed(productsState, Row::new, 10);
+ * catalog.setViewport(firstVisibleRow, lastVisibleRow + 1);
  * }</pre>
- * 
+ *
  * @param <T> the type of items in the state list
  * @param <C> the type of components to render
  * @author Eliezer
  * @since 1.0.0
  */
 public class ForEachState<T, C> {
-    
+
     private final ReadableState<List<T>> state;
     private final Function<T, C> componentFactory;
-    private final List<C> components = new ArrayList<>();
-    private final List<T> lastItems = new ArrayList<>();
-    
-    private ForEachState(ReadableState<List<T>> state, Function<T, C> componentFactory) {
+    private final Function<? super T, ?> keyExtractor;
+    private PersistentVector<T> items = PersistentVector.empty();
+    private PersistentVector<C> components = PersistentVector.empty();
+    private PersistentVector<Object> keys = PersistentVector.empty();
+    private long version;
+    private final ChangeEmitter<C> changes = new ChangeEmitter<>();
+    private final Subscription subscription;
+
+    // Janela: só existe no modo windowed (overscan >= 0)
+    private final int overscan;
+    private List<T> allItems = Collections.emptyList();
+    private int viewportStart;
+    private int viewportEnd;
+    private int windowStart;
+
+    // Reciclagem: opcional, ativada por recycling()
+    private BiConsumer<? super C, ? super T> binder;
+    private final ArrayDeque<C> pool = new ArrayDeque<>();
+    private int maxPooled;
+
+    // Reconciliação fatiada: só existe no modo chunked (budgetNanos > 0)
+    private final long budgetNanos;
+    private final FramePulse pulse;
+    LongSupplier clock = System::nanoTime;
+    private long nanosPerComponent = 50_000;
+    private List<T> pendingItems;
+    private Object[] pendingKeys;
+    private Map<Object, T> shownByKey;
+    private int committed;
+    private Subscription frames;
+
+    @SuppressWarnings("unchecked")
+    private ForEachState(ReadableState<List<T>> state, Function<? super T, ?> keyExtractor,
+                         Function<T, C> componentFactory, int overscan, Duration budget, FramePulse pulse) {
         this.state = state;
         this.componentFactory = componentFactory;
-        
-        state.subscribe(this::reconcile);
+        this.keyExtractor = keyExtractor;
+        this.overscan = overscan;
+        this.budgetNanos = budget != null ? budget.toNanos() : 0;
+        this.pulse = pulse;
+
+        if (budgetNanos > 0) {
+            this.subscription = state.subscribe(this::reconcileChunked);
+        } else if (overscan >= 0) {
+            this.subscription = state.subscribe(this::reconcileWindow);
+        } else if (keyExtractor != null) {
+            this.subscription = state.subscribe(this::reconcileByKey);
+        } else if (state instanceof ListState) {
+            this.subscription = ((ListState<T>) state).subscribeChanges(this::apply);
+        } else {
+            this.subscription = state.subscribe(this::reconcile);
+        }
     }
-    
+
     public static <T, C> ForEachState<T, C> of(ReadableState<List<T>> state, Function<T, C> componentFactory) {
-        return new ForEachState<>(state, componentFactory);
+        return new ForEachState<>(state, null, componentFactory, -1, null, null);
+    }
+
+    /**
+     * Creates a ForEachState that matches old and new items by key, reusing the
+     * components of items that were kept, even if they moved.
+     *
+     * @param <T> type of items
+     * @param <C> type of components
+     * @param state list state to render
+     * @param keyExtractor returns a key that identifies an item across changes;
+     *                     keys must be unique within the list
+     * @param componentFactory creates the component of an item
+     * @return a new keyed ForEachState
+     * @throws IllegalStateException if two items of the list share a key
+     */
+    public static <T, C> ForEachState<T, C> of(ReadableState<List<T>> state,
+                                               Function<? super T, ?> keyExtractor,
+                                               Function<T, C> componentFactory) {
+        return new ForEachState<>(state, Objects.requireNonNull(keyExtractor, "keyExtractor"), componentFactory, -1,
+                null, null);
+    }
+
+    /**
+     * Creates a windowed ForEachState that only materializes the components of
+     * the viewport plus {@code overscan} items on each side. Until
+     * {@link #setViewport} is called the viewport is empty, so only the first
+     * {@code overscan} items get components.
+     *
+     * @param <T> type of items
+     * @param <C> type of components
+     * @param state list state to render
+     * @param componentFactory creates the component of an item
+     * @param overscan number of items kept alive before and after the viewport
+     * @return a new windowed ForEachState
+     * @throws IllegalArgumentException if overscan is negative
+     */
+    public static <T, C> ForEachState<T, C> windowed(ReadableState<List<T>> state, Function<T, C> componentFactory,
+                                                     int overscan) {
+        return new ForEachState<>(state, null, componentFactory, checkOverscan(overscan), null, null);
+    }
+
+    /**
+     * Creates a windowed ForEachState whose components are matched by key
+     * within the window.
+     *
+     * @param <T> type of items
+     * @param <C> type of components
+     * @param state list state to render
+     * @param keyExtractor returns a key that identifies an item across changes
+     * @param componentFactory creates the component of an item
+     * @param overscan number of items kept alive before and after the viewport
+     * @return a new windowed, keyed ForEachState
+     * @throws IllegalArgumentException if overscan is negative
+     */
+    public static <T, C> ForEachState<T, C> windowed(ReadableState<List<T>> state,
+                                                     Function<? super T, ?> keyExtractor,
+                                                     Function<T, C> componentFactory, int overscan) {
+        return new ForEachState<>(state, Objects.requireNonNull(keyExtractor, "keyExtractor"), componentFactory,
+                checkOverscan(overscan), null, null);
+    }
+
+    /**
+     * Creates a ForEachState that reconciles in time slices. On each change it
+     * creates components until the budget is spent and shows the items
+     * reconciled so far, followed by the components that were already shown;
+     * the rest is done on the next frames of the pulse. If the list changes
+     * again before it finishes, the unfinished reconciliation is dropped and
+     * the new list is reconciled from the current components. Only the time
+     * spent in the component factory, or the binder when recycling, counts
+     * against the budget, and each frame only touches the items it commits.
+     *
+     * <h2>Example Usage:</h2>
+     * <pre>{@code
+     * ForEachState<Product, ProductRow> rows = ForEachState.chunked(
+     *     products, ProductRow::new, Duration.ofMillis(4), FramePulse.animationTimer());
+     *
+     * products.set(twentyThousandProducts); // a few hundred rows per frame
+     * }</pre>
+     *
+     * @param <T> type of items
+     * @param <C> type of components
+     * @param state list state to render
+     * @param componentFactory creates the component of an item
+     * @param budget time spent creating components per frame
+     * @param pulse frames on which the reconciliation continues
+     * @return a new chunked ForEachState
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public static <T, C> ForEachState<T, C> chunked(ReadableState<List<T>> state, Function<T, C> componentFactory,
+                                                    Duration budget, FramePulse pulse) {
+        return new ForEachState<>(state, null, componentFactory, -1, checkBudget(budget),
+                Objects.requireNonNull(pulse, "pulse"));
     }
-    
+
+    /**
+     * Creates a ForEachState that matches items by key and reconciles in time
+     * slices. Components of removed keys are dropped and those of kept keys are
+     * put in the new order right away; they stay visible after the committed
+     * prefix until the prefix reaches them.
+     *
+     * @param <T> type of items
+     * @param <C> type of components
+     * @param state list state to render
+     * @param keyExtractor returns a key that identifies an item across changes
+     * @param componentFactory creates the component of an item
+     * @param budget time spent creating components per frame
+     * @param pulse frames on which the reconciliation continues
+     * @return a new chunked, keyed ForEachState
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public static <T, C> ForEachState<T, C> chunked(ReadableState<List<T>> state,
+                                                    Function<? super T, ?> keyExtractor,
+                                                    Function<T, C> componentFactory,
+                                                    Duration budget, FramePulse pulse) {
+        return new ForEachState<>(state, Objects.requireNonNull(keyExtractor, "keyExtractor"), componentFactory, -1,
+                checkBudget(budget), Objects.requireNonNull(pulse, "pulse"));
+    }
+
+    private static Duration checkBudget(Duration budget) {
+        if (budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("Budget must be positive: " + budget);
+        }
+        return budget;
+    }
+
+    /**
+     * Returns whether a chunked reconciliation is still in progress.
+     *
+     * @return true if part of the last change was not reconciled yet
+     */
+    public boolean isPending() {
+        return pendingItems != null;
+    }
+
+    private static int checkOverscan(int overscan) {
+        if (overscan < 0) {
+            throw new IllegalArgumentException("Overscan cannot be negative: " + overscan);
+        }
+        return overscan;
+    }
+
+    /**
+     * Reports the visible items of a windowed ForEachState. The window becomes
+     * the viewport widened by the overscan on each side; components are created
+     * for the items entering it and dropped for the items leaving it.
+     *
+     * @param fromIndex index of the first visible item, inclusive
+     * @param toIndex index after the last visible item, exclusive
+     * @throws IllegalStateException if this ForEachState is not windowed
+     * @throws IllegalArgumentException if the range is invalid
+     */
+    public void setViewport(int fromIndex, int toIndex) {
+        if (overscan < 0) {
+            throw new IllegalStateException("ForEachState is not windowed");
+        }
+        if (fromIndex < 0 || toIndex < fromIndex) {
+            throw new IllegalArgumentException("Invalid viewport: " + fromIndex + ", " + toIndex);
+        }
+
+        viewportStart = fromIndex;
+        viewportEnd = toIndex;
+        shiftWindow();
+    }
+
+    /**
+     * Enables component recycling. From now on, a component whose item changed
+     * is passed to the binder with the new item instead of being recreated,
+     * and the components of removed items are kept, up to {@code maxPooled},
+     * to be rebound to the next new items before the factory is called.
+     *
+     * <h2>Example Usage:</h2>
+     * <pre>{@code
+     * ForEachState<Product, ProductRow> rows = ForEachState
+     *     .windowed(catalog, ProductRow::new, 10)
+     *     .recycling((row, product) -> row.show(product), 50);
+     * }</pre>
+     *
+     * @param binder updates an existing component to display another item
+     * @param maxPooled maximum number of unused components kept for reuse
+     * @return this ForEachState, for chaining
+     * @throws IllegalArgumentException if maxPooled is negative
+     */
+    public ForEachState<T, C> recycling(BiConsumer<? super C, ? super T> binder, int maxPooled) {
+        if (maxPooled < 0) {
+            throw new IllegalArgumentException("Pool size cannot be negative: " + maxPooled);
+        }
+        this.binder = Objects.requireNonNull(binder, "binder");
+        this.maxPooled = maxPooled;
+        trimPool();
+        return this;
+    }
+
+    /**
+     * Returns the number of unused components waiting in the recycle pool.
+     */
+    int getPooledCount() {
+        return pool.size();
+    }
+
+    /**
+     * Returns the index, in the state list, of the first component. Always 0
+     * unless this ForEachState is windowed.
+     *
+     * @return index of the item rendered by the first component
+     */
+    public int getWindowStart() {
+        return windowStart;
+    }
+
+    /**
+     * Returns the number of items in the state list, including the ones
+     * outside the window.
+     *
+     * @return number of items
+     */
+    public int getItemCount() {
+        return overscan >= 0 ? allItems.size() : items.size();
+    }
+
+    /**
+     * Returns a mutable copy of the current components. Code that reads the
+     * components often should prefer {@link #getComponentsView()}.
+     *
+     * @return new list with the current components
+     */
     public List<C> getComponents() {
         return new ArrayList<>(components);
     }
-    
+
+    /**
+     * Returns the current components without copying. The list is an immutable
+     * snapshot: it never changes, and the same instance is returned until a
+     * reconciliation changes the components, which also increments
+     * {@link #version()}.
+     *
+     * <h2>Example Usage:</h2>
+     * <pre>{@code
+     * if (forEachState.version() != renderedVersion) {
+     *     layout(forEachState.getComponentsView());
+     *     renderedVersion = forEachState.version();
+     * }
+     * }</pre>
+     *
+     * @return read-only snapshot of the current components
+     */
+    public List<C> getComponentsView() {
+        return components;
+    }
+
+    /**
+     * Returns the number of current components without copying them.
+     *
+     * @return number of components
+     */
+    public int componentCount() {
+        return components.size();
+    }
+
+    /**
+     * Returns a counter incremented every time the components change, so
+     * callers can skip work when it is the same as the last one they saw.
+     *
+     * @return version of the component list
+     */
+    public long version() {
+        return version;
+    }
+
     /**
      * Retorna o estado para permitir que componentes se inscrevam nas mudanças
-     * 
+     *
      * @return ReadableState<List<T>> o estado interno
      */
     public ReadableState<List<T>> getState() {
         return state;
     }
-    
+
+    /**
+     * Subscribes to the changes of the component list and immediately calls the
+     * listener with the current components, reported as added.
+     *
+     * @param listener to be notified with the ranges of each reconciliation
+     * @return subscription that removes the listener when closed
+     */
+    public Subscription subscribeChanges(Consumer<ListChange<C>> listener) {
+        Subscription subscription = changes.add(listener);
+        List<ListChange.Range<C>> ranges = new ArrayList<>(1);
+        if (!components.isEmpty()) {
+            ranges.add(ListChange.Range.added(0, components));
+        }
+        listener.accept(new ListChange<>(PersistentVector.empty(), components, ranges));
+        return subscription;
+    }
+
+    /**
+     * Stops following the state. The components already created are kept,
+     * but no further reconciliation happens.
+     */
+    public void dispose() {
+        subscription.close();
+        pool.clear();
+        cancelPending();
+    }
+
+    private void reconcileChunked(List<T> newItems) {
+        pendingItems = newItems != null ? newItems : Collections.emptyList();
+        committed = 0;
+        if (keyExtractor != null) {
+            pendingKeys = new Object[pendingItems.size()];
+            Map<Object, Integer> positions = new HashMap<>(pendingKeys.length * 2);
+            for (int i = 0; i < pendingKeys.length; i++) {
+                pendingKeys[i] = keyExtractor.apply(pendingItems.get(i));
+                if (positions.put(pendingKeys[i], i) != null) {
+                    cancelPending();
+                    throw new IllegalStateException("Duplicate key in ForEachState: " + pendingKeys[i]);
+                }
+            }
+            shownByKey = new HashMap<>(keys.size() * 2);
+            boolean inOrder = true;
+            int last = -1;
+            for (int i = 0; i < keys.size(); i++) {
+                Integer position = positions.get(keys.get(i));
+                inOrder &= position != null && position > last;
+                last = position != null ? position : last;
+                shownByKey.put(keys.get(i), items.get(i));
+            }
+
+            // Uma vez só: descarta as chaves removidas e põe as mantidas na nova
+            // ordem, assim cada fatia só consome o início do que ainda é mostrado
+            if (!inOrder) {
+                List<T> kept = new ArrayList<>(shownByKey.size());
+                for (Object key : pendingKeys) {
+                    if (shownByKey.containsKey(key)) {
+                        kept.add(shownByKey.get(key));
+                    }
+                }
+                reconcileByKey(kept);
+            }
+        }
+
+        reconcileSlice();
+        if (pendingItems != null && frames == null) {
+            frames = pulse.onFrame(this::reconcileSlice);
+        }
+    }
+
+    /**
+     * Extends the committed prefix by as many items as the components they
+     * need fit in the budget, at least one, using the cost measured so far.
+     * Only the factory and the binder are measured, so the cost per component
+     * does not grow with the size of the list.
+     */
+    private void reconcileSlice() {
+        if (pendingItems == null) {
+            cancelPending();
+            return;
+        }
+
+        int size = pendingItems.size();
+        int next = committed;
+        int needed = 0;
+        while (next < size) {
+            if (needsComponent(next)) {
+                if (needed > 0 && (needed + 1) * nanosPerComponent > budgetNanos) {
+                    break;
+                }
+                needed++;
+            }
+            next++;
+        }
+
+        long spent = advance(next);
+        committed = next;
+
+        if (needed > 0) {
+            nanosPerComponent = Math.max(1, spent / needed);
+        }
+        if (committed == size) {
+            cancelPending();
+        }
+    }
+
+    private boolean needsComponent(int index) {
+        T item = pendingItems.get(index);
+        if (keyExtractor == null) {
+            return index >= items.size() || !Objects.equals(items.get(index), item);
+        }
+        Object key = pendingKeys[index];
+        return !shownByKey.containsKey(key) || !Objects.equals(shownByKey.get(key), item);
+    }
+
+    /**
+     * Commits the new items from {@link #committed} up to {@code to}. What is
+     * shown after the prefix is already in the new order: by position, the old
+     * items; by key, the kept items. So each new item either takes the next
+     * shown component, recreated or rebound if its item changed, or gets a new
+     * one inserted before it, and the work is proportional to the slice.
+     *
+     * @return nanoseconds spent in the component factory and the binder
+     */
+    private long advance(int to) {
+        int from = committed;
+        List<C> segment = new ArrayList<>(to - from);
+        List<C> runRemoved = null;
+        int runStart = -1;
+        int taken = 0;
+        boolean inserted = false;
+        boolean itemsChanged = false;
+        boolean componentsChanged = false;
+        long spent = 0;
+
+        for (int i = from; i < to; i++) {
+            T item = pendingItems.get(i);
+            C component;
+            C replacedComponent = null;
+            boolean created = !isShown(i);
+            if (created) {
+                long start = clock.getAsLong();
+                component = createComponent(item);
+                spent += clock.getAsLong() - start;
+                inserted = true;
+            } else {
+                int shown = from + taken++;
+                component = components.get(shown);
+                if (!Objects.equals(items.get(shown), item)) {
+                    long start = clock.getAsLong();
+                    if (!rebind(component, item)) {
+                        replacedComponent = component;
+                        component = componentFactory.apply(item);
+                    }
+                    spent += clock.getAsLong() - start;
+                    itemsChanged = true;
+                }
+            }
+            segment.add(component);
+
+            // Agrupa posições seguidas criadas, ou seguidas recriadas, num só range
+            boolean edited = created || replacedComponent != null;
+            if (runStart >= 0 && (!edited || created != runRemoved.isEmpty())) {
+                recordRun(runStart, runRemoved, segment.subList(runStart - from, i - from));
+                runStart = -1;
+            }
+            if (edited) {
+                if (runStart < 0) {
+                    runStart = i;
+                    runRemoved = new ArrayList<>();
+                }
+                if (!created) {
+                    runRemoved.add(replacedComponent);
+                }
+                componentsChanged = true;
+            }
+        }
+        if (runStart >= 0) {
+            recordRun(runStart, runRemoved, segment.subList(runStart - from, to - from));
+        }
+
+        PersistentVector<T> nextItems = items;
+        PersistentVector<C> next = components;
+        if (componentsChanged) {
+            next = next.splice(from, taken, segment);
+        }
+        if (componentsChanged || itemsChanged) {
+            nextItems = nextItems.splice(from, taken, pendingItems.subList(from, to));
+        }
+        if (inserted && keyExtractor != null) {
+            keys = keys.splice(from, taken, Arrays.asList(pendingKeys).subList(from, to));
+        }
+
+        // Fim da lista por posição: os itens antigos que sobraram saem
+        if (to == pendingItems.size() && next.size() > to) {
+            record(ListChange.Range.removed(to, next.subList(to, next.size())));
+            recycle(next.subList(to, next.size()));
+            next = next.splice(to, next.size() - to, Collections.emptyList());
+            nextItems = nextItems.splice(to, nextItems.size() - to, Collections.emptyList());
+        }
+
+        commit(nextItems, next);
+        return spent;
+    }
+
+    private boolean isShown(int index) {
+        return keyExtractor == null ? index < items.size() : shownByKey.containsKey(pendingKeys[index]);
+    }
+
+    /**
+     * Records a run of created components, if nothing was removed, or of
+     * recreated ones.
+     */
+    private void recordRun(int from, List<C> removed, List<C> added) {
+        if (removed.isEmpty()) {
+            record(ListChange.Range.added(from, copyOf(added)));
+        } else {
+            record(ListChange.Range.replaced(from, Collections.unmodifiableList(removed), copyOf(added)));
+        }
+    }
+
+    private void cancelPending() {
+        pendingItems = null;
+        pendingKeys = null;
+        shownByKey = null;
+        if (frames != null) {
+            frames.close();
+            frames = null;
+        }
+    }
+
+    private void reconcileWindow(List<T> newItems) {
+        allItems = newItems != null ? newItems : Collections.emptyList();
+        windowStart = windowFrom();
+        List<T> window = allItems.subList(windowStart, Math.max(windowStart, windowTo()));
+        if (keyExtractor != null) {
+            reconcileByKey(window);
+        } else {
+            reconcile(window);
+        }
+    }
+
+    private int windowFrom() {
+        return Math.min(Math.max(0, viewportStart - overscan), allItems.size());
+    }
+
+    private int windowTo() {
+        return (int) Math.min((long) viewportEnd + overscan, allItems.size());
+    }
+
+    /**
+     * Moves the window to the current viewport. Where the old and new windows
+     * overlap only the edges change; otherwise the window is replaced.
+     */
+    private void shiftWindow() {
+        int start = windowFrom();
+        int end = Math.max(start, windowTo());
+        int oldStart = windowStart;
+        int oldEnd = windowStart + components.size();
+        if (start == oldStart && end == oldEnd) {
+            return;
+        }
+
+        if (end <= oldStart || start >= oldEnd) {
+            // Sem sobreposição: troca a janela inteira
+            removeComponents(0, components.size());
+            insertComponents(0, allItems.subList(start, end));
+        } else {
+            // Remove antes de criar, para que os componentes que saem possam ser reciclados
+            if (end < oldEnd) {
+                removeComponents(end - oldStart, oldEnd - end);
+            }
+            if (start > oldStart) {
+                removeComponents(0, start - oldStart);
+            }
+            if (end > oldEnd) {
+                insertComponents(components.size(), allItems.subList(oldEnd, end));
+            }
+            if (start < oldStart) {
+                insertComponents(0, allItems.subList(start, oldStart));
+            }
+        }
+        windowStart = start;
+        version++;
+        changes.publish(components);
+    }
+
+    private void removeComponents(int from, int count) {
+        if (count == 0) {
+            return;
+        }
+        record(ListChange.Range.removed(from, components.subList(from, from + count)));
+        recycle(components.subList(from, from + count));
+        components = components.splice(from, count, Collections.emptyList());
+        items = items.splice(from, count, Collections.emptyList());
+        if (keyExtractor != null) {
+            keys = keys.splice(from, count, Collections.emptyList());
+        }
+    }
+
+    private void insertComponents(int at, List<T> newItems) {
+        if (newItems.isEmpty()) {
+            return;
+        }
+        List<C> created = create(newItems);
+        record(ListChange.Range.added(at, Collections.unmodifiableList(created)));
+        components = components.splice(at, 0, created);
+        items = items.splice(at, 0, newItems);
+        if (keyExtractor != null) {
+            List<Object> newKeys = new ArrayList<>(newItems.size());
+            for (T item : newItems) {
+                newKeys.add(keyExtractor.apply(item));
+            }
+            keys = keys.splice(at, 0, newKeys);
+        }
+    }
+
     private void reconcile(List<T> newItems) {
         if (newItems == null) {
-            newItems = new ArrayList<>();
-        }
-        
-        // Remove components que não existem mais
-        for (int i = lastItems.size() - 1; i >= newItems.size(); i--) {
-            components.remove(i);
-            lastItems.remove(i);
-        }
-        
-        // Atualiza ou cria componentes
-        for (int i = 0; i < newItems.size(); i++) {
-            T newItem = newItems.get(i);
-            
-            if (i < lastItems.size()) {
-                // Verifica se o item mudou
-                T oldItem = lastItems.get(i);
-                if (!java.util.Objects.equals(oldItem, newItem)) {
-                    // Item mudou, substitui o componente
-                    C newComponent = componentFactory.apply(newItem);
-                    components.set(i, newComponent);
-                    lastItems.set(i, newItem);
+            newItems = Collections.emptyList();
+        }
+
+        int common = Math.min(items.size(), newItems.size());
+        PersistentVector<C> next = components;
+
+        // Atualiza componentes cujos itens mudaram
+        int runStart = -1;
+        for (int i = 0; i <= common; i++) {
+            boolean changed = i < common && !Objects.equals(items.get(i), newItems.get(i))
+                    && !rebind(components.get(i), newItems.get(i));
+            if (changed) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+                next = next.with(i, componentFactory.apply(newItems.get(i)));
+            } else if (runStart >= 0) {
+                record(ListChange.Range.replaced(runStart, components.subList(runStart, i), next.subList(runStart, i)));
+                runStart = -1;
+            }
+        }
+
+        // Remove componentes que não existem mais
+        if (items.size() > common) {
+            record(ListChange.Range.removed(common, components.subList(common, items.size())));
+            recycle(components.subList(common, items.size()));
+            next = next.splice(common, items.size() - common, Collections.emptyList());
+        }
+
+        // Novos itens, novos componentes
+        if (newItems.size() > common) {
+            next = next.plusAll(create(newItems.subList(common, newItems.size())));
+            record(ListChange.Range.added(common, next.subList(common, next.size())));
+        }
+
+        commit(PersistentVector.from(newItems), next);
+    }
+
+    /**
+     * Follows the ranges of a {@link ListState} change, so only the components
+     * in those ranges are created, dropped or moved.
+     */
+    private void apply(ListChange<T> change) {
+        PersistentVector<C> next = components;
+
+        for (ListChange.Range<T> range : change.getRanges()) {
+            int from = range.getFrom();
+            int count = range.getRemoved().size();
+            switch (range.getType()) {
+                case ADDED:
+                    List<C> created = create(range.getAdded());
+                    next = next.splice(from, 0, created);
+                    record(ListChange.Range.added(from, next.subList(from, from + created.size())));
+                    break;
+                case REMOVED:
+                    record(ListChange.Range.removed(from, next.subList(from, from + count)));
+                    recycle(next.subList(from, from + count));
+                    next = next.splice(from, count, Collections.emptyList());
+                    break;
+                case MOVED:
+                    List<C> moved = next.subList(from, from + count);
+                    record(ListChange.Range.moved(from, range.getTo(), moved));
+                    next = count == 1
+                            ? next.move(from, range.getTo())
+                            : next.splice(from, count, Collections.emptyList()).splice(range.getTo(), 0, moved);
+                    break;
+                default:
+                    next = replace(next, from, range.getRemoved(), range.getAdded());
+            }
+        }
+
+        commit(PersistentVector.from(change.getList()), next);
+    }
+
+    /**
+     * Recreates the components of a replaced range whose items really changed,
+     * recording one range per run of changed items.
+     */
+    private PersistentVector<C> replace(PersistentVector<C> next, int from, List<T> oldItems, List<T> newItems) {
+        PersistentVector<C> before = next;
+        int runStart = -1;
+        for (int i = 0; i <= newItems.size(); i++) {
+            boolean changed = i < newItems.size() && !Objects.equals(oldItems.get(i), newItems.get(i))
+                    && !rebind(next.get(from + i), newItems.get(i));
+            if (changed) {
+                if (runStart < 0) {
+                    runStart = from + i;
+                }
+                next = next.with(from + i, componentFactory.apply(newItems.get(i)));
+            } else if (runStart >= 0) {
+                record(ListChange.Range.replaced(runStart,
+                        before.subList(runStart, from + i), next.subList(runStart, from + i)));
+                runStart = -1;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Matches the new items to the current components by key. Components of
+     * removed keys are dropped, components whose position is not part of the
+     * longest increasing subsequence of kept positions are moved, new keys get
+     * new components and kept keys whose item changed are recreated.
+     *
+     * <p>The final position of every component is known up front, so the
+     * working list is never rebuilt: the index of a component in it, needed by
+     * each recorded range, is counted in a {@link Positions} tree, which keeps
+     * the whole reconciliation in O(n log n).</p>
+     */
+    private void reconcileByKey(List<T> newItems) {
+        if (newItems == null) {
+            newItems = Collections.emptyList();
+        }
+
+        int size = newItems.size();
+        Object[] newKeys = new Object[size];
+        Map<Object, Integer> positions = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            newKeys[i] = keyExtractor.apply(newItems.get(i));
+            if (positions.put(newKeys[i], i) != null) {
+                throw new IllegalStateException("Duplicate key in ForEachState: " + newKeys[i]);
+            }
+        }
+
+        boolean changed = false;
+
+        // Remove as chaves que sumiram, de trás para frente para não deslocar os índices
+        for (int end = components.size(); end > 0; ) {
+            if (positions.containsKey(keys.get(end - 1))) {
+                end--;
+                continue;
+            }
+            int start = end - 1;
+            while (start > 0 && !positions.containsKey(keys.get(start - 1))) {
+                start--;
+            }
+            record(ListChange.Range.removed(start, components.subList(start, end)));
+            recycle(components.subList(start, end));
+            changed = true;
+            end = start;
+        }
+
+        // Componentes mantidos, na ordem atual, com a posição que terão na nova lista
+        int[] targets = new int[components.size()];
+        int keptCount = 0;
+        boolean[] kept = new boolean[size];
+        List<C> result = new ArrayList<>(Collections.nCopies(size, null));
+        List<T> previousItems = new ArrayList<>(newItems);
+        for (int j = 0; j < components.size(); j++) {
+            Integer target = positions.get(keys.get(j));
+            if (target != null) {
+                targets[keptCount++] = target;
+                kept[target] = true;
+                result.set(target, components.get(j));
+                previousItems.set(target, items.get(j));
+            }
+        }
+        targets = Arrays.copyOf(targets, keptCount);
+
+        // Itens que mantêm a ordem relativa não se movem
+        boolean[] stable = new boolean[size];
+        for (int i : longestIncreasingSubsequence(targets)) {
+            stable[targets[i]] = true;
+        }
+
+        // Cada item vai para logo antes do seguinte, então sua vaga final fica
+        // antes do próximo item estável; os que ainda vão se mover ocupam
+        // uma vaga provisória na posição atual
+        int[] finalSlot = new int[size];
+        int[] currentSlot = new int[size];
+        int slots = 0;
+        int next = 0;
+        for (int target : targets) {
+            if (stable[target]) {
+                while (next <= target) {
+                    finalSlot[next++] = slots++;
                 }
             } else {
-                // Novo item, cria novo componente
-                C newComponent = componentFactory.apply(newItem);
-                components.add(newComponent);
-                lastItems.add(newItem);
+                currentSlot[target] = slots++;
+            }
+        }
+        while (next < size) {
+            finalSlot[next++] = slots++;
+        }
+        Positions working = new Positions(slots);
+        for (int target : targets) {
+            working.add(stable[target] ? finalSlot[target] : currentSlot[target]);
+        }
+
+        // Percorre a nova lista de trás para frente, pondo cada item antes do seguinte
+        for (int i = size - 1; i >= 0; i--) {
+            if (stable[i]) {
+                continue;
+            }
+            int anchor = i == size - 1 ? working.size() : working.indexOf(finalSlot[i + 1]);
+            if (!kept[i]) {
+                int start = i;
+                while (start > 0 && !kept[start - 1]) {
+                    start--;
+                }
+                List<C> created = create(newItems.subList(start, i + 1));
+                for (int k = start; k <= i; k++) {
+                    result.set(k, created.get(k - start));
+                    working.add(finalSlot[k]);
+                }
+                record(ListChange.Range.added(anchor, Collections.unmodifiableList(created)));
+                i = start;
+            } else {
+                int from = working.indexOf(currentSlot[i]);
+                int to = from < anchor ? anchor - 1 : anchor;
+                working.remove(currentSlot[i]);
+                working.add(finalSlot[i]);
+                if (from == to) {
+                    continue;
+                }
+                record(ListChange.Range.moved(from, to, Collections.singletonList(result.get(i))));
+            }
+            changed = true;
+        }
+
+        // Mesma chave, item diferente: recria o componente
+        int runStart = -1;
+        List<C> replaced = new ArrayList<>();
+        for (int i = 0; i <= size; i++) {
+            if (i < size && !Objects.equals(previousItems.get(i), newItems.get(i))
+                    && !rebind(result.get(i), newItems.get(i))) {
+                if (runStart < 0) {
+                    runStart = i;
+                    replaced = new ArrayList<>();
+                }
+                replaced.add(result.get(i));
+                result.set(i, componentFactory.apply(newItems.get(i)));
+            } else if (runStart >= 0) {
+                record(ListChange.Range.replaced(runStart, Collections.unmodifiableList(replaced),
+                        copyOf(result.subList(runStart, i))));
+                runStart = -1;
+                changed = true;
+            }
+        }
+
+        keys = PersistentVector.from(Arrays.asList(newKeys));
+        commit(PersistentVector.from(newItems), changed ? PersistentVector.from(result) : components);
+    }
+
+    private static <E> List<E> copyOf(List<E> list) {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    /**
+     * Creates the components of new items, taking them from the recycle pool
+     * while it has any.
+     */
+    private List<C> create(List<T> newItems) {
+        List<C> created = new ArrayList<>(newItems.size());
+        for (T item : newItems) {
+            created.add(createComponent(item));
+        }
+        return created;
+    }
+
+    private C createComponent(T item) {
+        C component = pool.pollLast();
+        if (component != null) {
+            binder.accept(component, item);
+            return component;
+        }
+        return componentFactory.apply(item);
+    }
+
+    /**
+     * Rebinds the component to its changed item, if recycling is enabled.
+     *
+     * @return true if the component was rebound and can be kept
+     */
+    private boolean rebind(C component, T item) {
+        if (binder == null) {
+            return false;
+        }
+        binder.accept(component, item);
+        return true;
+    }
+
+    /**
+     * Keeps the components of removed items for reuse, up to the pool limit.
+     */
+    private void recycle(List<C> removed) {
+        if (binder == null) {
+            return;
+        }
+        for (C component : removed) {
+            if (pool.size() >= maxPooled) {
+                return;
+            }
+            if (component != null) {
+                pool.addLast(component);
+            }
+        }
+    }
+
+    private void trimPool() {
+        while (pool.size() > maxPooled) {
+            pool.pollFirst();
+        }
+    }
+
+    /**
+     * Records a range of the component change being built. Must be called
+     * before {@link #commit}, while {@link #components} is still the previous
+     * version.
+     */
+    private void record(ListChange.Range<C> range) {
+        if (changes.isObserved()) {
+            changes.record(components, range);
+        }
+    }
+
+    private void commit(PersistentVector<T> newItems, PersistentVector<C> newComponents) {
+        this.items = newItems;
+        if (newComponents != components) {
+            this.components = newComponents;
+            version++;
+        }
+        changes.publish(newComponents);
+    }
+
+    /**
+     * Returns the indices of one longest strictly increasing subsequence of the
+     * values, in O(n log n).
+     */
+    private static int[] longestIncreasingSubsequence(int[] values) {
+        int[] tails = new int[values.length];
+        int[] previous = new int[values.length];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[tails[middle]] < values[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        int[] result = new int[length];
+        for (int i = length - 1, k = length > 0 ? tails[length - 1] : -1; i >= 0; i--) {
+            result[i] = k;
+            k = previous[k];
+        }
+        return result;
+    }
+
+    /**
+     * Set of occupied slots that counts, in O(log n), how many are occupied
+     * before a given one (a Fenwick tree). Slots are laid out in list order,
+     * so that count is the index of the component in the slot.
+     */
+    private static final class Positions {
+        private final int[] tree;
+        private int size;
+
+        Positions(int slots) {
+            tree = new int[slots + 1];
+        }
+
+        void add(int slot) {
+            update(slot, 1);
+        }
+
+        void remove(int slot) {
+            update(slot, -1);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Returns how many occupied slots come before the given one. */
+        int indexOf(int slot) {
+            int count = 0;
+            for (int i = slot; i > 0; i -= i & -i) {
+                count += tree[i];
+            }
+            return count;
+        }
+
+        private void update(int slot, int delta) {
+            size += delta;
+            for (int i = slot + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
             }
         }
     }
-}
\ No newline at end of file
+}
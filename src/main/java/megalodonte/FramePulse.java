@@ -0,0 +1,49 @@
+package megalodonte;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Source of frame callbacks used to spread work over several frames, such as
+ * the time-sliced reconciliation of {@link ForEachState#chunked}.
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * FramePulse pulse = FramePulse.animationTimer();
+ *
+ * Subscription frames = pulse.onFrame(() -> System.out.println("frame"));
+ * frames.close(); // no more callbacks
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface FramePulse {
+
+    /**
+     * Runs the task once per frame until the returned subscription is closed.
+     *
+     * @param task work to run on each frame
+     * @return subscription that stops the callbacks
+     */
+    Subscription onFrame(Runnable task);
+
+    /**
+     * Returns a pulse driven by a JavaFX {@link AnimationTimer}, which runs on
+     * the FX thread once per pulse. Must be used from the FX thread.
+     *
+     * @return pulse backed by an animation timer
+     */
+    static FramePulse animationTimer() {
+        return task -> {
+            AnimationTimer timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    task.run();
+                }
+            };
+            timer.start();
+            return timer::stop;
+        };
+    }
+}
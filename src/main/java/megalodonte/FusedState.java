@@ -0,0 +1,203 @@
+package megalodonte;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Lazy chain of {@link ReadableState#map map}, {@link ReadableState#filter filter}
+ * and {@link ReadableState#distinctUntilChanged distinctUntilChanged} stages
+ * over a source state.
+ *
+ * <p>Chaining an operator on a fused state does not create another state: it
+ * returns a new node with one more stage over the same source, so
+ * {@code a.map(f).filter(p).map(g)} runs f, p and g in a single listener, with
+ * a single listener list and a single equality check per change.</p>
+ *
+ * <p>A node subscribes to its source only while it has subscribers itself,
+ * and closes that subscription when the last one leaves. Without subscribers,
+ * {@link #get()} pulls the current source value through the stages; when a
+ * filter rejects it, the last value that passed is returned (null if none).
+ * Like {@link State}, a node notifies only when its value changes.</p>
+ *
+ * @param <T> type of the value at the end of the chain
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class FusedState<T> implements ReadableState<T> {
+
+    private static final Object SKIP = new Object();
+    private static final Object NONE = new Object();
+
+    private static final int MAP = 0;
+    private static final int FILTER = 1;
+    private static final int DISTINCT = 2;
+
+    private final ReadableState<?> source;
+    private final Stage[] stages;
+    // Último valor que passou por cada estágio distinct, só enquanto assinado
+    private final Object[] memory;
+    private final Listeners<T> listeners = new Listeners<>();
+    private Subscription upstream;
+    private boolean wiring;
+    private T value;
+
+    private FusedState(ReadableState<?> source, Stage[] stages) {
+        this.source = source;
+        this.stages = stages;
+        this.memory = new Object[stages.length];
+    }
+
+    @SuppressWarnings("unchecked")
+    static <S, R> ReadableState<R> map(ReadableState<S> source, Function<? super S, ? extends R> mapper) {
+        return new FusedState<>(source, new Stage[]{new Stage(MAP, (Function<Object, Object>) mapper, null)});
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ReadableState<T> filter(ReadableState<T> source, Predicate<? super T> predicate) {
+        return new FusedState<>(source, new Stage[]{new Stage(FILTER, null, (Predicate<Object>) predicate)});
+    }
+
+    static <T> ReadableState<T> distinct(ReadableState<T> source) {
+        return new FusedState<>(source, new Stage[]{new Stage(DISTINCT, null, null)});
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> ReadableState<R> map(Function<T, R> mapper) {
+        return new FusedState<>(source, append(new Stage(MAP, (Function<Object, Object>) mapper, null)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ReadableState<T> filter(Predicate<? super T> predicate) {
+        return new FusedState<>(source, append(new Stage(FILTER, null, (Predicate<Object>) predicate)));
+    }
+
+    @Override
+    public ReadableState<T> distinctUntilChanged() {
+        return new FusedState<>(source, append(new Stage(DISTINCT, null, null)));
+    }
+
+    private Stage[] append(Stage stage) {
+        Stage[] next = Arrays.copyOf(stages, stages.length + 1);
+        next[stages.length] = stage;
+        return next;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Propagation.read(this);
+        if (upstream == null) {
+            Object result = run(source.get(), false);
+            if (result != SKIP) {
+                value = (T) result;
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public boolean isNull() {
+        return get() == null;
+    }
+
+    /**
+     * Subscribes to the end of the chain, attaching the chain to its source if
+     * this is the first subscriber.
+     */
+    @Override
+    public Subscription subscribe(Consumer<T> listener) {
+        Subscription subscription = listeners.add(listener);
+        if (upstream == null) {
+            attach();
+        }
+        listener.accept(value);
+        return () -> {
+            subscription.close();
+            if (listeners.isEmpty() && upstream != null) {
+                // Último observador saiu: solta a fonte
+                upstream.close();
+                upstream = null;
+            }
+        };
+    }
+
+    boolean isAttached() {
+        return upstream != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void attach() {
+        Arrays.fill(memory, NONE);
+        wiring = true;
+        try {
+            upstream = ((ReadableState<Object>) source).subscribe(this::onSourceChange);
+        } finally {
+            wiring = false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onSourceChange(Object input) {
+        Object result = run(input, true);
+        if (result == SKIP) {
+            return;
+        }
+        if (wiring) {
+            value = (T) result; // valor atual da fonte, entregue pelo subscribe
+            return;
+        }
+        if (!Objects.equals(value, result)) {
+            value = (T) result;
+            listeners.publish(value);
+        }
+    }
+
+    /**
+     * Runs the value through every stage.
+     *
+     * @param push whether this is a change being propagated, which advances the
+     *             distinct stages; a pull ignores them
+     * @return the value at the end of the chain, or {@link #SKIP} if a stage dropped it
+     */
+    private Object run(Object input, boolean push) {
+        Object current = input;
+        for (int i = 0; i < stages.length; i++) {
+            Stage stage = stages[i];
+            switch (stage.kind) {
+                case MAP:
+                    current = stage.mapper.apply(current);
+                    break;
+                case FILTER:
+                    if (!stage.predicate.test(current)) {
+                        return SKIP;
+                    }
+                    break;
+                default:
+                    if (push) {
+                        if (memory[i] != NONE && Objects.equals(memory[i], current)) {
+                            return SKIP;
+                        }
+                        memory[i] = current;
+                    }
+            }
+        }
+        return current;
+    }
+
+    private static final class Stage {
+        final int kind;
+        final Function<Object, Object> mapper;
+        final Predicate<Object> predicate;
+
+        Stage(int kind, Function<Object, Object> mapper, Predicate<Object> predicate) {
+            this.kind = kind;
+            this.mapper = mapper;
+            this.predicate = predicate;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package megalodonte;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * {@link Scheduler} that coalesces every task scheduled between two FX pulses
+ * into a single {@code Platform.runLater}.
+ *
+ * <p>Tasks go to a lock-free queue and only the first one since the last drain
+ * posts a runnable to the FX thread. The drain runs all the queued tasks inside
+ * one {@link Propagation#batch batch}, so computed states depending on several
+ * of the delivered states recompute once.</p>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class FxScheduler implements Scheduler {
+
+    static final FxScheduler INSTANCE = new FxScheduler(Platform::runLater);
+
+    private final Consumer<Runnable> runLater;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean posted = new AtomicBoolean();
+
+    FxScheduler(Consumer<Runnable> runLater) {
+        this.runLater = runLater;
+    }
+
+    @Override
+    public void schedule(Runnable task) {
+        tasks.add(task);
+        if (posted.compareAndSet(false, true)) {
+            runLater.accept(this::drain);
+        }
+    }
+
+    private void drain() {
+        // Liberado antes de esvaziar: o que chegar depois agenda um novo runLater
+        posted.set(false);
+        Propagation.batch(() -> {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,217 @@
+package megalodonte;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Reactive state specialized for a primitive {@code int}.
+ *
+ * <p>The value is stored unboxed, equality is a primitive comparison and
+ * listeners subscribed through {@link #subscribeAsInt} receive the raw
+ * {@code int}, so counters and progress values can change without allocating.
+ * IntState is still a {@link ReadableState ReadableState&lt;Integer&gt;}:
+ * {@link #get()} and {@link #subscribe(Consumer)} box the value only for the
+ * callers that use them.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * IntState counter = IntState.of(0);
+ * counter.subscribeAsInt(count -> label.setText("Items: " + count));
+ *
+ * counter.increment();
+ *
+ * BooleanState hasItems = counter.mapToBoolean(count -> count > 0);
+ * Show.when(hasItems, () -> new Text("Cart"));
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public class IntState implements ReadableState<Integer> {
+
+    private int value;
+    private final Emitter listeners = new Emitter();
+
+    public IntState(int initial) {
+        this.value = initial;
+    }
+
+    /**
+     * Creates a new IntState with the specified initial value.
+     *
+     * @param initial initial value
+     * @return a new IntState instance
+     */
+    public static IntState of(int initial) {
+        return new IntState(initial);
+    }
+
+    /**
+     * Returns the current value without boxing.
+     *
+     * @return current value
+     */
+    public int getAsInt() {
+        Propagation.read(this);
+        return value;
+    }
+
+    @Override
+    public Integer get() {
+        return getAsInt();
+    }
+
+    @Override
+    public boolean isNull() {
+        return false;
+    }
+
+    /**
+     * Sets a new value and notifies all subscribers if the value changed.
+     *
+     * @param newValue new value to set
+     */
+    public void set(int newValue) {
+        if (value == newValue) {
+            return;
+        }
+
+        value = newValue;
+        listeners.publish(newValue);
+    }
+
+    /**
+     * Adds the delta to the current value.
+     *
+     * @param delta amount to add, may be negative
+     */
+    public void add(int delta) {
+        set(value + delta);
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void decrement() {
+        add(-1);
+    }
+
+    /**
+     * Replaces the value with the result of the updater.
+     *
+     * @param updater function applied to the current value
+     */
+    public void update(IntUnaryOperator updater) {
+        set(updater.applyAsInt(value));
+    }
+
+    /**
+     * Subscribes to changes with a primitive listener and immediately calls it
+     * with the current value.
+     *
+     * @param listener to be notified of state changes
+     * @return subscription that removes the listener when closed
+     */
+    public Subscription subscribeAsInt(IntConsumer listener) {
+        Subscription subscription = listeners.add(listener);
+        listener.accept(value);
+        return subscription;
+    }
+
+    @Override
+    public Subscription subscribe(Consumer<Integer> listener) {
+        Subscription subscription = listeners.add(listener::accept, listener);
+        listener.accept(value);
+        return subscription;
+    }
+
+    /**
+     * Creates an IntState that follows this state through the mapper.
+     *
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public IntState mapToInt(IntUnaryOperator mapper) {
+        IntState derived = new IntState(mapper.applyAsInt(value));
+        subscribeAsInt(v -> derived.set(mapper.applyAsInt(v)));
+        return derived;
+    }
+
+    /**
+     * Creates a LongState that follows this state through the mapper.
+     *
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public LongState mapToLong(IntToLongFunction mapper) {
+        LongState derived = new LongState(mapper.applyAsLong(value));
+        subscribeAsInt(v -> derived.set(mapper.applyAsLong(v)));
+        return derived;
+    }
+
+    /**
+     * Creates a DoubleState that follows this state through the mapper.
+     *
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public DoubleState mapToDouble(IntToDoubleFunction mapper) {
+        DoubleState derived = new DoubleState(mapper.applyAsDouble(value));
+        subscribeAsInt(v -> derived.set(mapper.applyAsDouble(v)));
+        return derived;
+    }
+
+    /**
+     * Creates a BooleanState that follows this state through the predicate.
+     *
+     * @param predicate predicate applied to each value
+     * @return derived state
+     */
+    public BooleanState mapToBoolean(IntPredicate predicate) {
+        BooleanState derived = new BooleanState(predicate.test(value));
+        subscribeAsInt(v -> derived.set(predicate.test(v)));
+        return derived;
+    }
+
+    /**
+     * Creates an object state that follows this state through the mapper,
+     * without boxing the source value.
+     *
+     * @param <R> type of the mapped value
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public <R> ReadableState<R> mapToObj(IntFunction<R> mapper) {
+        State<R> derived = new State<>(mapper.apply(value));
+        subscribeAsInt(v -> derived.set(mapper.apply(v)));
+        return derived;
+    }
+
+    private static final class Emitter extends ListenerArray<IntConsumer> {
+        private int pendingValue;
+
+        void publish(int newValue) {
+            pendingValue = newValue;
+            if (!Propagation.defer(this)) {
+                Propagation.emit(this);
+            }
+        }
+
+        @Override
+        void flushPending() {
+            int current = pendingValue;
+            for (Entry<IntConsumer> entry : entries()) {
+                IntConsumer listener = entry.listener;
+                if (listener != null) {
+                    listener.accept(current);
+                }
+            }
+        }
+    }
+}
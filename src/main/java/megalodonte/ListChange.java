@@ -0,0 +1,215 @@
+package megalodonte;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes how a {@link ListState} went from one version of its list to the
+ * next, as a sequence of index ranges.
+ *
+ * <p>Each {@link Range} is expressed against the list as left by the ranges
+ * before it, so applying them in order to {@link #getPrevious()} yields
+ * {@link #getList()}. Every range is "remove, then add": the
+ * {@link Range#getRemoved() removed} items leave at {@link Range#getFrom()} and
+ * the {@link Range#getAdded() added} items are inserted at
+ * {@link Range#getTo()}. A consumer can therefore do work proportional to the
+ * size of the change instead of rescanning the whole list.</p>
+ *
+ * <p>All the lists exposed by a change are immutable views of the state
+ * snapshots; they are not copied.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * ListState<String> names = ListState.of(List.of("Alice", "Bob"));
+ * List<String> mirror = new ArrayList<>();
+ *
+ * names.subscribeChanges(change -> change.applyTo(mirror));
+ *
+ * names.add(0, "Zoe");   // ADDED   from=0 [Zoe]
+ * names.move(2, 0);      // MOVED   from=2 to=0 [Bob]
+ * names.set(1, "Zara");  // REPLACED from=1 [Zoe] -> [Zara]
+ * }</pre>
+ *
+ * @param <E> type of elements in the list
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public final class ListChange<E> {
+
+    /**
+     * Kind of a {@link Range}.
+     */
+    public enum Type {
+        /** Items inserted at {@code from}. */
+        ADDED,
+        /** Items removed starting at {@code from}. */
+        REMOVED,
+        /** Items at {@code from} replaced in place by the same number of items. */
+        REPLACED,
+        /** Items taken from {@code from} and reinserted at {@code to}. */
+        MOVED
+    }
+
+    private final List<E> previous;
+    private final List<E> list;
+    private final List<Range<E>> ranges;
+
+    ListChange(List<E> previous, List<E> list, List<Range<E>> ranges) {
+        this.previous = previous;
+        this.list = list;
+        this.ranges = Collections.unmodifiableList(ranges);
+    }
+
+    /**
+     * Returns the list before the change.
+     *
+     * @return previous list
+     */
+    public List<E> getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Returns the list after the change.
+     *
+     * @return current list
+     */
+    public List<E> getList() {
+        return list;
+    }
+
+    /**
+     * Returns the ranges, in the order they must be applied.
+     *
+     * @return ranges of this change
+     */
+    public List<Range<E>> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Applies every range to a list that holds the same items as
+     * {@link #getPrevious()}, turning it into the same items as {@link #getList()}.
+     *
+     * @param target mutable list to patch
+     */
+    public void applyTo(List<E> target) {
+        for (Range<E> range : ranges) {
+            range.applyTo(target);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ListChange" + ranges;
+    }
+
+    /**
+     * One contiguous step of a {@link ListChange}.
+     *
+     * @param <E> type of elements in the list
+     */
+    public static final class Range<E> {
+        private final Type type;
+        private final int from;
+        private final int to;
+        private final List<E> removed;
+        private final List<E> added;
+
+        private Range(Type type, int from, int to, List<E> removed, List<E> added) {
+            this.type = type;
+            this.from = from;
+            this.to = to;
+            this.removed = removed;
+            this.added = added;
+        }
+
+        static <E> Range<E> added(int index, List<E> items) {
+            return new Range<>(Type.ADDED, index, index, Collections.emptyList(), items);
+        }
+
+        static <E> Range<E> removed(int index, List<E> items) {
+            return new Range<>(Type.REMOVED, index, index, items, Collections.emptyList());
+        }
+
+        static <E> Range<E> replaced(int index, List<E> oldItems, List<E> newItems) {
+            return new Range<>(Type.REPLACED, index, index, oldItems, newItems);
+        }
+
+        static <E> Range<E> moved(int from, int to, List<E> items) {
+            return new Range<>(Type.MOVED, from, to, items, items);
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Returns the index where the removed items start, or where the added
+         * items are inserted for everything but {@link Type#MOVED}.
+         *
+         * @return start index of the range
+         */
+        public int getFrom() {
+            return from;
+        }
+
+        /**
+         * Returns the index where the added items are inserted, after the
+         * removed ones left the list. Differs from {@link #getFrom()} only for
+         * {@link Type#MOVED}.
+         *
+         * @return insertion index
+         */
+        public int getTo() {
+            return to;
+        }
+
+        /**
+         * Returns the items that left the list, empty for {@link Type#ADDED}.
+         *
+         * @return removed items
+         */
+        public List<E> getRemoved() {
+            return removed;
+        }
+
+        /**
+         * Returns the items that entered the list, empty for {@link Type#REMOVED}.
+         *
+         * @return added items
+         */
+        public List<E> getAdded() {
+            return added;
+        }
+
+        void applyTo(List<E> target) {
+            if (type == Type.REPLACED) {
+                for (int i = 0; i < added.size(); i++) {
+                    target.set(from + i, added.get(i));
+                }
+                return;
+            }
+            if (!removed.isEmpty()) {
+                target.subList(from, from + removed.size()).clear();
+            }
+            if (!added.isEmpty()) {
+                target.addAll(to, added);
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case ADDED:
+                    return "ADDED at " + from + " " + added;
+                case REMOVED:
+                    return "REMOVED at " + from + " " + removed;
+                case REPLACED:
+                    return "REPLACED at " + from + " " + removed + " -> " + added;
+                default:
+                    return "MOVED " + from + " -> " + to + " " + added;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package megalodonte;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
@@ -9,6 +10,24 @@ import java.util.function.Predicate;
 /**
  * Specialized reactive state for list operations.
  * Provides type-safe list manipulation methods while maintaining reactivity.
+ *
+ * <p>The list is stored in a persistent vector with structural sharing.
+ * {@link #add}, {@link #set(int, Object)}, {@link #updateIf} and
+ * {@link #removeLast} copy only one path of the tree, O(log n), instead of the
+ * whole list, and {@link #get()} returns an immutable snapshot that later
+ * mutations never change.</p>
+ *
+ * <p>Besides the whole list, subscribers can receive a {@link ListChange}
+ * through {@link #subscribeChanges}, describing which index ranges were added,
+ * removed, replaced or moved. Changes are only built while someone listens to
+ * them, and inside a {@link State#batch batch} the ranges of every mutation are
+ * delivered together in one change.</p>
+ *
+ * <p>Like {@link State}, a list state can {@link #deliverOn deliver on} a
+ * {@link Scheduler}. Then the mutations made before the scheduler runs reach
+ * the subscribers as one notification with the latest list, and as one change
+ * computed against the list they last received. A list state is not
+ * thread-safe either: mutate it on the thread that owns it.</p>
  * 
  * <h2>Example Usage:</h2>
  * <pre>{@code
@@ -23,11 +42,14 @@ import java.util.function.Predicate;
  */
 public class ListState<E> implements ReadableState<List<E>> {
 
-    private List<E> value;
-    private final List<Consumer<List<E>>> listeners = new ArrayList<>();
+    private PersistentVector<E> value;
+    private final Listeners<List<E>> listeners = new Listeners<>();
+    private final ChangeEmitter<E> changes = new ChangeEmitter<>();
+    private ScheduledDelivery<PersistentVector<E>> delivery;
+    private PersistentVector<E> delivered;
 
     public ListState(List<E> initial) {
-        this.value = initial != null ? new ArrayList<>(initial) : new ArrayList<>();
+        this.value = initial != null ? PersistentVector.from(initial) : PersistentVector.empty();
     }
 
     /**
@@ -42,11 +64,39 @@ public class ListState<E> implements ReadableState<List<E>> {
     }
 
     /**
-     * Returns the current list value of this state.
+     * Makes the subscribers be notified through the scheduler instead of
+     * inside each mutation. The mutations still apply right away; the ones made
+     * before the scheduler runs are delivered together, as the latest list and
+     * one {@link ListChange} from the previously delivered list. Mutations must
+     * still be made on the owner thread.
+     *
+     * @param scheduler scheduler of the notifications, or null to notify synchronously
+     * @return this state, for chaining
+     */
+    public ListState<E> deliverOn(Scheduler scheduler) {
+        delivered = value;
+        delivery = scheduler != null ? new ScheduledDelivery<>(scheduler, this::deliver) : null;
+        return this;
+    }
+
+    /**
+     * Returns the scheduler of the notifications.
+     *
+     * @return the scheduler, or null if subscribers are notified synchronously
+     */
+    public Scheduler getScheduler() {
+        ScheduledDelivery<PersistentVector<E>> current = delivery;
+        return current != null ? current.scheduler() : null;
+    }
+
+    /**
+     * Returns the current list value of this state. The list is an immutable
+     * snapshot: it is not affected by later changes to the state.
      * 
      * @return current list
      */
     public List<E> get() {
+        Propagation.read(this);
         return value;
     }
 
@@ -65,22 +115,132 @@ public class ListState<E> implements ReadableState<List<E>> {
             return; // ← proteção centralizada
         }
 
-        this.value = newList;
+        PersistentVector<E> newValue = newList != null ? PersistentVector.from(newList) : null;
+        if (recording()) {
+            recordDifference(orEmpty(value), orEmpty(newValue));
+        }
+        commit(newValue);
+    }
+
+    private static <E> PersistentVector<E> orEmpty(PersistentVector<E> list) {
+        return list != null ? list : PersistentVector.empty();
+    }
 
-        for (var listener : List.copyOf(listeners)) {
-            listener.accept(newList);
+    /**
+     * Describes a whole-list replacement: the common prefix and suffix are
+     * skipped and only the middle is reported, replaced in place where both
+     * versions overlap and added or removed where they do not.
+     */
+    private void recordDifference(PersistentVector<E> previous, PersistentVector<E> next) {
+        int shorter = Math.min(previous.size(), next.size());
+        int prefix = 0;
+        while (prefix < shorter && Objects.equals(previous.get(prefix), next.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < shorter - prefix
+                && Objects.equals(previous.get(previous.size() - 1 - suffix), next.get(next.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        int removedEnd = previous.size() - suffix;
+        int addedEnd = next.size() - suffix;
+        int replacedEnd = Math.min(removedEnd, addedEnd);
+        if (replacedEnd > prefix) {
+            changes.record(previous, ListChange.Range.replaced(prefix,
+                    previous.subList(prefix, replacedEnd), next.subList(prefix, replacedEnd)));
+        }
+        if (removedEnd > replacedEnd) {
+            changes.record(previous, ListChange.Range.removed(replacedEnd, previous.subList(replacedEnd, removedEnd)));
+        }
+        if (addedEnd > replacedEnd) {
+            changes.record(previous, ListChange.Range.added(replacedEnd, next.subList(replacedEnd, addedEnd)));
+        }
+    }
+
+    /**
+     * Stores a new version produced by a mutator, which already knows the list
+     * changed, and notifies the subscribers.
+     */
+    private void commit(PersistentVector<E> newValue) {
+        this.value = newValue;
+        ScheduledDelivery<PersistentVector<E>> scheduled = delivery;
+        if (scheduled != null) {
+            scheduled.offer(newValue);
+            return;
         }
+        listeners.publish(newValue);
+        changes.publish(newValue);
+    }
+
+    /**
+     * Runs on the scheduler: delivers the latest list and the difference from
+     * the one delivered before.
+     */
+    private void deliver(PersistentVector<E> latest) {
+        PersistentVector<E> previous = delivered;
+        delivered = latest;
+        if (changes.isObserved()) {
+            recordDifference(orEmpty(previous), orEmpty(latest));
+        }
+        listeners.publish(latest);
+        changes.publish(latest);
+    }
+
+    /**
+     * Returns whether the mutators must record their ranges. A scheduled state
+     * computes its change when delivering instead.
+     */
+    private boolean recording() {
+        return delivery == null && changes.isObserved();
+    }
+
+    /**
+     * Records a range of the change being built. Must be called before
+     * {@link #commit}, while {@link #value} is still the previous version.
+     */
+    private void record(ListChange.Range<E> range) {
+        changes.record(value, range);
     }
 
     /**
      * Subscribes to list changes and immediately calls the listener with the current list.
      * 
      * @param listener to be notified of list changes
+     * @return subscription that removes the listener when closed
+     */
+    public Subscription subscribe(Consumer<List<E>> listener) {
+        Subscription subscription = listeners.add(listener);
+        listener.accept(delivery != null ? delivered : value);
+        return subscription;
+    }
+
+    /**
+     * Subscribes to the ranges of each change and immediately calls the listener
+     * with the current items, reported as added to an empty list.
+     *
+     * <h2>Example Usage:</h2>
+     * <pre>{@code
+     * todos.subscribeChanges(change -> {
+     *     for (ListChange.Range<Todo> range : change.getRanges()) {
+     *         System.out.println(range);  // e.g. "REMOVED at 3 [Todo{...}]"
+     *     }
+     * });
+     * }</pre>
+     *
+     * @param listener to be notified of list changes
+     * @return subscription that removes the listener when closed
      */
-    public void subscribe(Consumer<List<E>> listener) {
-        listeners.add(listener);
-        ListenerManager.register(listener);
-        listener.accept(value);
+    public Subscription subscribeChanges(Consumer<ListChange<E>> listener) {
+        Subscription subscription = changes.add(listener);
+        // Com scheduler, as próximas mudanças partem da última lista entregue
+        List<E> current = orEmpty(delivery != null ? delivered : value);
+        List<ListChange.Range<E>> ranges = new ArrayList<>(1);
+        if (!current.isEmpty()) {
+            ranges.add(ListChange.Range.added(0, current));
+        }
+        listener.accept(new ListChange<>(PersistentVector.empty(), current, ranges));
+        return subscription;
     }
 
     /**
@@ -89,9 +249,54 @@ public class ListState<E> implements ReadableState<List<E>> {
      * @param item item to be added
      */
     public void add(E item) {
-        List<E> newList = new ArrayList<>(value);
-        newList.add(item);
-        set(newList);
+        PersistentVector<E> newValue = value.plus(item);
+        if (recording()) {
+            record(ListChange.Range.added(value.size(), newValue.subList(value.size(), newValue.size())));
+        }
+        commit(newValue);
+    }
+
+    /**
+     * Inserts an item at the specified position, shifting the following items.
+     *
+     * @param index position of the new item, from 0 to the size of the list
+     * @param item item to be inserted
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public void add(int index, E item) {
+        if (index < 0 || index > value.size()) {
+            throw new IndexOutOfBoundsException("Index out of bounds: " + index);
+        }
+
+        PersistentVector<E> newValue = value.insert(index, item);
+        if (recording()) {
+            record(ListChange.Range.added(index, newValue.subList(index, index + 1)));
+        }
+        commit(newValue);
+    }
+
+    /**
+     * Moves the item at {@code from} so that it ends up at {@code to}.
+     *
+     * @param from current index of the item
+     * @param to index of the item after the move
+     * @throws IndexOutOfBoundsException if an index is invalid
+     */
+    public void move(int from, int to) {
+        if (from < 0 || from >= value.size()) {
+            throw new IndexOutOfBoundsException("Index out of bounds: " + from);
+        }
+        if (to < 0 || to >= value.size()) {
+            throw new IndexOutOfBoundsException("Index out of bounds: " + to);
+        }
+
+        if (from == to) {
+            return;
+        }
+        if (recording()) {
+            record(ListChange.Range.moved(from, to, value.subList(from, from + 1)));
+        }
+        commit(value.move(from, to));
     }
 
     /**
@@ -105,9 +310,10 @@ public class ListState<E> implements ReadableState<List<E>> {
             throw new IllegalArgumentException("Items collection cannot be null");
         }
         
-        List<E> newList = new ArrayList<>(value);
-        newList.addAll(items);
-        set(newList);
+        if (items.isEmpty()) {
+            return;
+        }
+        append(value.plusAll(items));
     }
 
     /**
@@ -121,9 +327,17 @@ public class ListState<E> implements ReadableState<List<E>> {
             throw new IllegalArgumentException("Items array cannot be null");
         }
         
-        List<E> newList = new ArrayList<>(value);
-        java.util.Collections.addAll(newList, items);
-        set(newList);
+        if (items.length == 0) {
+            return;
+        }
+        append(value.plusAll(Arrays.asList(items)));
+    }
+
+    private void append(PersistentVector<E> newValue) {
+        if (recording()) {
+            record(ListChange.Range.added(value.size(), newValue.subList(value.size(), newValue.size())));
+        }
+        commit(newValue);
     }
 
     /**
@@ -134,16 +348,24 @@ public class ListState<E> implements ReadableState<List<E>> {
             return;
         }
         
-        List<E> newList = new ArrayList<>(value);
-        newList.remove(newList.size() - 1);
-        set(newList);
+        int last = value.size() - 1;
+        if (recording()) {
+            record(ListChange.Range.removed(last, value.subList(last, last + 1)));
+        }
+        commit(value.minusLast());
     }
 
     /**
      * Clears all items from the list.
      */
     public void clear() {
-        set(new ArrayList<>());
+        if (value.isEmpty()) {
+            return;
+        }
+        if (recording()) {
+            record(ListChange.Range.removed(0, value));
+        }
+        commit(PersistentVector.empty());
     }
 
     /**
@@ -152,15 +374,49 @@ public class ListState<E> implements ReadableState<List<E>> {
      * @param filter predicate to remove items
      */
     public void removeIf(Predicate<E> filter) {
-        List<E> newList = new ArrayList<>();
+        keepOnly(item -> !filter.test(item));
+    }
+
+    /**
+     * Keeps only the items accepted by the predicate, committing a new version
+     * only if something was dropped. Each run of dropped items becomes one
+     * removed range.
+     *
+     * @return true if the list changed
+     */
+    private boolean keepOnly(Predicate<? super E> keep) {
+        PersistentVector.Builder<E> kept = new PersistentVector.Builder<>();
+        List<ListChange.Range<E>> removed = recording() ? new ArrayList<>() : null;
+        int keptCount = 0;
+        int runStart = -1;
+        int i = 0;
         
         for (E item : value) {
-            if (!filter.test(item)) {
-                newList.add(item);
+            if (keep.test(item)) {
+                if (runStart >= 0 && removed != null) {
+                    removed.add(ListChange.Range.removed(keptCount, value.subList(runStart, i)));
+                }
+                runStart = -1;
+                kept.add(item);
+                keptCount++;
+            } else if (runStart < 0) {
+                runStart = i;
             }
+            i++;
+        }
+        if (runStart >= 0 && removed != null) {
+            removed.add(ListChange.Range.removed(keptCount, value.subList(runStart, value.size())));
         }
         
-        set(newList);
+        if (keptCount == value.size()) {
+            return false;
+        }
+        PersistentVector<E> newList = kept.build();
+        if (removed != null) {
+            removed.forEach(this::record);
+        }
+        commit(newList);
+        return true;
     }
 
     /**
@@ -170,14 +426,17 @@ public class ListState<E> implements ReadableState<List<E>> {
      * @return true if the item was removed, false otherwise
      */
     public boolean remove(E item) {
-        List<E> newList = new ArrayList<>(value);
-        boolean removed = newList.remove(item);
+        int index = value.indexOf(item);
         
-        if (removed) {
-            set(newList);
+        if (index == -1) {
+            return false;
         }
         
-        return removed;
+        if (recording()) {
+            record(ListChange.Range.removed(index, value.subList(index, index + 1)));
+        }
+        commit(value.minus(index));
+        return true;
     }
 
     /**
@@ -192,14 +451,7 @@ public class ListState<E> implements ReadableState<List<E>> {
             throw new IllegalArgumentException("Items collection cannot be null");
         }
         
-        List<E> newList = new ArrayList<>(value);
-        boolean changed = newList.removeAll(items);
-        
-        if (changed) {
-            set(newList);
-        }
-        
-        return changed;
+        return keepOnly(item -> !items.contains(item));
     }
 
     /**
@@ -214,14 +466,7 @@ public class ListState<E> implements ReadableState<List<E>> {
             throw new IllegalArgumentException("Items collection cannot be null");
         }
         
-        List<E> newList = new ArrayList<>(value);
-        boolean changed = newList.retainAll(items);
-        
-        if (changed) {
-            set(newList);
-        }
-        
-        return changed;
+        return keepOnly(items::contains);
     }
 
     /**
@@ -236,9 +481,10 @@ public class ListState<E> implements ReadableState<List<E>> {
             throw new IndexOutOfBoundsException("Index out of bounds: " + index);
         }
         
-        List<E> newList = new ArrayList<>(value);
-        newList.set(index, newItem);
-        set(newList);
+        if (Objects.equals(value.get(index), newItem)) {
+            return;
+        }
+        replaceAt(index, newItem);
     }
 
     /**
@@ -249,16 +495,25 @@ public class ListState<E> implements ReadableState<List<E>> {
      * @return true if the item was found and replaced, false otherwise
      */
     public boolean replace(E oldItem, E newItem) {
-        List<E> newList = new ArrayList<>(value);
-        int index = newList.indexOf(oldItem);
+        int index = value.indexOf(oldItem);
         
-        if (index != -1) {
-            newList.set(index, newItem);
-            set(newList);
-            return true;
+        if (index == -1) {
+            return false;
         }
         
-        return false;
+        if (!Objects.equals(oldItem, newItem)) {
+            replaceAt(index, newItem);
+        }
+        return true;
+    }
+
+    private void replaceAt(int index, E newItem) {
+        PersistentVector<E> newValue = value.with(index, newItem);
+        if (recording()) {
+            record(ListChange.Range.replaced(index,
+                    value.subList(index, index + 1), newValue.subList(index, index + 1)));
+        }
+        commit(newValue);
     }
 
     /**
@@ -268,7 +523,7 @@ public class ListState<E> implements ReadableState<List<E>> {
      * @return index of the item, or -1 if not found
      */
     public int indexOf(E item) {
-        return value.indexOf(item);
+        return get().indexOf(item);
     }
 
     /**
@@ -278,7 +533,7 @@ public class ListState<E> implements ReadableState<List<E>> {
      * @return true if the list contains the item
      */
     public boolean contains(E item) {
-        return value.contains(item);
+        return get().contains(item);
     }
 
     /**
@@ -292,7 +547,7 @@ public class ListState<E> implements ReadableState<List<E>> {
         if (items == null) {
             throw new IllegalArgumentException("Items collection cannot be null");
         }
-        return value.containsAll(items);
+        return get().containsAll(items);
     }
 
     /**
@@ -301,7 +556,7 @@ public class ListState<E> implements ReadableState<List<E>> {
      * @return the number of items in the list
      */
     public int size() {
-        return value.size();
+        return get().size();
     }
 
     /**
@@ -310,7 +565,7 @@ public class ListState<E> implements ReadableState<List<E>> {
      * @return true if the list is empty
      */
     public boolean isEmpty() {
-        return value.isEmpty();
+        return get().isEmpty();
     }
 
 /**
@@ -321,12 +576,13 @@ public class ListState<E> implements ReadableState<List<E>> {
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public E get(int index) {
-        return value.get(index);
+        return get().get(index);
     }
 
     /**
      * Updates the first item matching the predicate by applying the update function.
-     * This is more efficient than remove-then-add for large lists.
+     * This is more efficient than remove-then-add for large lists: only the path
+     * to the updated item is copied.
      * 
      * @param predicate to find the item to update
      * @param updater function that takes the old item and returns the updated item
@@ -337,12 +593,12 @@ public class ListState<E> implements ReadableState<List<E>> {
             E item = value.get(i);
             if (predicate.test(item)) {
                 E updatedItem = updater.apply(item);
-                List<E> newList = new ArrayList<>(value);
-                newList.set(i, updatedItem);
-                set(newList);
+                if (!Objects.equals(item, updatedItem)) {
+                    replaceAt(i, updatedItem);
+                }
                 return true;
             }
         }
         return false;
     }
-}
\ No newline at end of file
+}
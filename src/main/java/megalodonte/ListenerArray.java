@@ -0,0 +1,120 @@
+package megalodonte;
+
+import java.util.Arrays;
+
+/**
+ * Copy-on-subscribe array of listeners of any functional type.
+ *
+ * <p>Subscribing replaces the backing array with a copy that also holds the new
+ * listener, so emitting only walks the current {@link #entries() array} and
+ * never allocates. A listener added while an emission is running is first
+ * called on the next emission.</p>
+ *
+ * <p>Each entry is its own {@link Subscription}. Closing it clears the entry in
+ * place, which is constant time; the array is compacted once the closed entries
+ * outnumber the live ones, so the amortized cost of unsubscribing stays O(1).</p>
+ *
+ * <p>Subclasses add the emission for their listener type and take part in
+ * {@link Propagation} by keeping the latest value in
+ * {@link Propagation.Pending#flushPending()}.</p>
+ *
+ * @param <L> type of the listeners
+ * @author Eliezer
+ * @since 1.0.0
+ */
+abstract class ListenerArray<L> extends Propagation.Pending {
+
+    private static final Entry<?>[] EMPTY = new Entry<?>[0];
+
+    @SuppressWarnings("unchecked")
+    private Entry<L>[] array = (Entry<L>[]) EMPTY;
+    private int closed;
+
+    /**
+     * Adds a listener, copying the backing array, and registers it in the
+     * {@link ListenerManager}.
+     *
+     * @param listener listener to be added
+     * @return subscription that removes the listener
+     */
+    Subscription add(L listener) {
+        return add(listener, listener);
+    }
+
+    /**
+     * Adds a listener that adapts another one, registering the original in the
+     * {@link ListenerManager} so it can be found by identity.
+     *
+     * @param listener listener to be added
+     * @param registered listener the caller subscribed
+     * @return subscription that removes the listener
+     */
+    Subscription add(L listener, Object registered) {
+        Entry<L> entry = new Entry<>(this, listener, registered);
+        Entry<L>[] current = array;
+        Entry<L>[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = entry;
+        array = next;
+        ListenerManager.registerListener(registered);
+        return entry;
+    }
+
+    /**
+     * Returns the current entries. Closed entries have a {@code null} listener
+     * and must be skipped.
+     *
+     * @return the backing array, not to be modified
+     */
+    Entry<L>[] entries() {
+        return array;
+    }
+
+    int size() {
+        return array.length - closed;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private void remove() {
+        closed++;
+        Entry<L>[] current = array;
+        if (closed * 2 < current.length) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Entry<L>[] next = (Entry<L>[]) new Entry<?>[current.length - closed];
+        int i = 0;
+        for (Entry<L> e : current) {
+            if (e.listener != null) {
+                next[i++] = e;
+            }
+        }
+        array = next;
+        closed = 0;
+    }
+
+    static final class Entry<L> implements Subscription {
+        private final ListenerArray<L> owner;
+        private final Object registered;
+        L listener;
+
+        private Entry(ListenerArray<L> owner, L listener, Object registered) {
+            this.owner = owner;
+            this.listener = listener;
+            this.registered = registered;
+        }
+
+        @Override
+        public void close() {
+            if (listener == null) {
+                return;
+            }
+            listener = null;
+            owner.remove();
+            ListenerManager.unregisterListener(registered);
+        }
+    }
+}
@@ -1,32 +1,284 @@
 package megalodonte;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
+/**
+ * Global registry of the listeners currently subscribed to states.
+ *
+ * <p>Listeners are kept in an identity hash map, so {@link #register} and
+ * {@link #unregister} are O(1) regardless of how many listeners are open, and
+ * {@link #getListenerCount} reads a striped {@link LongAdder} instead of
+ * walking the registry.</p>
+ *
+ * <p>With {@link #setWeakReferences(boolean)} enabled, listeners and owners
+ * registered afterwards are held weakly: the registry no longer pins lambdas
+ * (and the components they capture) and entries disappear once they are
+ * garbage collected. A subscription returned by a state's {@code subscribe}
+ * is held weakly in its owner's group too, since the state keeps it while it
+ * is open: a listener that captures its owner then pins the owner only through
+ * the state, and a collected owner has its open subscriptions closed. Other
+ * {@link Subscription} implementations are still held strongly, as nothing
+ * else may keep them.</p>
+ *
+ * <p>Subscriptions can also be grouped by an owner, typically a screen or a
+ * component, and released together with {@link #dispose(Object)}.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * ListenerManager.register(screen, name.subscribe(label::setText));
+ * ListenerManager.register(screen, total.subscribe(totalLabel::setText));
+ *
+ * // When the screen is closed
+ * ListenerManager.dispose(screen); // closes both subscriptions
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
 public class ListenerManager {
 
-    private static final List<Consumer<?>> listeners = new ArrayList<>();
+    private static final ConcurrentHashMap<Key, Integer> listeners = new ConcurrentHashMap<>();
+    // Membros de um grupo: a Subscription ou, no modo fraco, um WeakMember dela
+    private static final ConcurrentHashMap<Key, Set<Object>> owners = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private static final LongAdder count = new LongAdder();
+    private static volatile boolean weakReferences;
     //private static int disposeCount = 0;
 
+    /**
+     * Chooses whether listeners and owners registered from now on are held
+     * through weak references. Entries registered before keep their mode.
+     *
+     * @param weak true to hold new entries weakly
+     */
+    public static void setWeakReferences(boolean weak) {
+        weakReferences = weak;
+    }
+
+    /**
+     * Returns whether new entries are held through weak references.
+     *
+     * @return true if new entries are held weakly
+     */
+    public static boolean isWeakReferences() {
+        return weakReferences;
+    }
+
     public static void register(Consumer<?> listener) {
-        listeners.add(listener);
+        registerListener(listener);
     }
 
     public static boolean unregister(Consumer<?> listener) {
-        return listeners.remove(listener);
+        return unregisterListener(listener);
+    }
+
+    /**
+     * Registers a listener of any functional type, such as the primitive
+     * listeners of {@link IntState}.
+     */
+    static void registerListener(Object listener) {
+        expungeCollected();
+        listeners.merge(newKey(listener), 1, Integer::sum);
+        count.increment();
+    }
+
+    static boolean unregisterListener(Object listener) {
+        expungeCollected();
+        boolean[] removed = new boolean[1];
+        listeners.computeIfPresent(new StrongKey(listener), (key, registrations) -> {
+            removed[0] = true;
+            return registrations == 1 ? null : registrations - 1;
+        });
+        if (removed[0]) {
+            count.decrement();
+        }
+        return removed[0];
+    }
+
+    /**
+     * Groups a subscription under an owner so it can be closed with
+     * {@link #dispose(Object)}.
+     *
+     * @param owner object that owns the subscription, e.g. a screen
+     * @param subscription subscription to be grouped
+     * @return the same subscription, for chaining
+     */
+    public static Subscription register(Object owner, Subscription subscription) {
+        return register(newKey(owner), subscription, weakReferences);
+    }
+
+    /**
+     * Groups a subscription under an owner held weakly whatever the mode, for
+     * owners the library creates itself, such as the state of
+     * {@link State#fromPublisher}. The subscription must not strongly reach
+     * the owner.
+     */
+    static Subscription registerWeakly(Object owner, Subscription subscription) {
+        return register(new WeakKey(owner, collected), subscription, true);
+    }
+
+    private static Subscription register(Key owner, Subscription subscription, boolean weak) {
+        expungeCollected();
+        Set<Object> group = owners.computeIfAbsent(owner, key -> ConcurrentHashMap.newKeySet());
+        // A entrada fica viva pelo estado enquanto aberta; o grupo não precisa segurá-la
+        group.add(weak && subscription instanceof ListenerArray.Entry
+                ? new WeakMember(subscription, group, collected)
+                : subscription);
+        return subscription;
+    }
+
+    /**
+     * Closes and forgets every subscription grouped under the owner.
+     *
+     * @param owner object whose subscriptions should be closed
+     * @return number of subscriptions closed
+     */
+    public static int dispose(Object owner) {
+        expungeCollected();
+        Set<Object> group = owners.remove(new StrongKey(owner));
+        return group == null ? 0 : closeAll(group);
     }
 
     public static int getListenerCount() {
-        return listeners.size();
+        expungeCollected();
+        return count.intValue();
     }
 
     public static void disposeAll() {
         //int countBefore = listeners.size();
         //System.out.println("[" + (++disposeCount) + "] Sem dar dispose, a aplicacao esta consumindo " + countBefore + " listeners ainda abertos");
-        
+
         listeners.clear();
-        
+        owners.clear();
+        count.reset();
+
         //System.out.println("[" + disposeCount + "] Após o dispose, a aplicacao agora tem 0 listeners abertos");
     }
+
+    private static Key newKey(Object referent) {
+        return weakReferences ? new WeakKey(referent, collected) : new StrongKey(referent);
+    }
+
+    private static int closeAll(Set<Object> group) {
+        int closed = 0;
+        for (Object member : group) {
+            Subscription subscription = member instanceof WeakMember
+                    ? ((WeakMember) member).get()
+                    : (Subscription) member;
+            if (subscription != null) {
+                subscription.close();
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Drops the entries whose referent was garbage collected. A collected owner
+     * has its grouped subscriptions closed, so the states release them too.
+     */
+    private static void expungeCollected() {
+        Reference<?> reference;
+        while ((reference = collected.poll()) != null) {
+            if (reference instanceof WeakMember) {
+                WeakMember member = (WeakMember) reference;
+                member.group.remove(member); // o estado e a assinatura já se foram
+                continue;
+            }
+            Key key = (Key) reference;
+            Integer registrations = listeners.remove(key);
+            if (registrations != null) {
+                count.add(-registrations);
+            }
+            Set<Object> group = owners.remove(key);
+            if (group != null) {
+                closeAll(group);
+            }
+        }
+    }
+
+    /**
+     * Identity-based key, so listeners overriding equals are still told apart
+     * and lookups never call user code.
+     */
+    private interface Key {
+        Object referent();
+    }
+
+    private static boolean sameReferent(Key key, Object other) {
+        if (key == other) {
+            return true;
+        }
+        if (!(other instanceof Key)) {
+            return false;
+        }
+        Object referent = key.referent();
+        return referent != null && referent == ((Key) other).referent();
+    }
+
+    private static final class StrongKey implements Key {
+        private final Object referent;
+
+        private StrongKey(Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public Object referent() {
+            return referent;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return sameReferent(this, other);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(referent);
+        }
+    }
+
+    private static final class WeakKey extends WeakReference<Object> implements Key {
+        private final int hash;
+
+        private WeakKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public Object referent() {
+            return get();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return sameReferent(this, other);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Subscription of a group held weakly; removed from the group once the
+     * subscription is collected together with its state.
+     */
+    private static final class WeakMember extends WeakReference<Subscription> {
+        private final Set<Object> group;
+
+        private WeakMember(Subscription subscription, Set<Object> group, ReferenceQueue<Object> queue) {
+            super(subscription, queue);
+            this.group = group;
+        }
+    }
 }
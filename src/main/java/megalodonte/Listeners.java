@@ -0,0 +1,61 @@
+package megalodonte;
+
+import java.util.function.Consumer;
+
+/**
+ * Listener list shared by the object state implementations.
+ *
+ * <p>Listeners live in a copy-on-subscribe {@link ListenerArray}, so
+ * {@link #emit} never allocates. {@link #publish} is what the states call on
+ * change: it runs the change as a {@link Propagation} wave, or, when a wave or
+ * batch is already running, queues the list there and keeps only the latest
+ * value.</p>
+ *
+ * @param <T> type of value delivered to the listeners
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class Listeners<T> extends ListenerArray<Consumer<? super T>> {
+
+    private T pendingValue;
+
+    /**
+     * Delivers the value to every listener subscribed when the call started
+     * and not closed since.
+     *
+     * @param value value to deliver
+     */
+    void emit(T value) {
+        for (Entry<Consumer<? super T>> entry : entries()) {
+            Consumer<? super T> listener = entry.listener;
+            if (listener != null) {
+                listener.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Delivers the value now, or at the end of the current wave if one is
+     * running. Within a wave only the last published value is delivered.
+     *
+     * @param value value to deliver
+     */
+    void publish(T value) {
+        pendingValue = value;
+        if (!Propagation.defer(this)) {
+            Propagation.emit(this);
+        }
+    }
+
+    @Override
+    void flushPending() {
+        T value = pendingValue;
+        pendingValue = null;
+        emit(value);
+    }
+
+    @Override
+    void discardPending() {
+        pendingValue = null;
+    }
+}
@@ -0,0 +1,214 @@
+package megalodonte;
+
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Reactive state specialized for a primitive {@code long}.
+ *
+ * <p>The value is stored unboxed, equality is a primitive comparison and
+ * listeners subscribed through {@link #subscribeAsLong} receive the raw
+ * {@code long}, so large counters and timestamps can change without allocating.
+ * LongState is still a {@link ReadableState ReadableState&lt;Long&gt;}:
+ * {@link #get()} and {@link #subscribe(Consumer)} box the value only for the
+ * callers that use them.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * LongState bytesRead = LongState.of(0L);
+ * bytesRead.subscribeAsLong(bytes -> progress.setText(bytes + " bytes"));
+ *
+ * bytesRead.add(chunk.length);
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public class LongState implements ReadableState<Long> {
+
+    private long value;
+    private final Emitter listeners = new Emitter();
+
+    public LongState(long initial) {
+        this.value = initial;
+    }
+
+    /**
+     * Creates a new LongState with the specified initial value.
+     *
+     * @param initial initial value
+     * @return a new LongState instance
+     */
+    public static LongState of(long initial) {
+        return new LongState(initial);
+    }
+
+    /**
+     * Returns the current value without boxing.
+     *
+     * @return current value
+     */
+    public long getAsLong() {
+        Propagation.read(this);
+        return value;
+    }
+
+    @Override
+    public Long get() {
+        return getAsLong();
+    }
+
+    @Override
+    public boolean isNull() {
+        return false;
+    }
+
+    /**
+     * Sets a new value and notifies all subscribers if the value changed.
+     *
+     * @param newValue new value to set
+     */
+    public void set(long newValue) {
+        if (value == newValue) {
+            return;
+        }
+
+        value = newValue;
+        listeners.publish(newValue);
+    }
+
+    /**
+     * Adds the delta to the current value.
+     *
+     * @param delta amount to add, may be negative
+     */
+    public void add(long delta) {
+        set(value + delta);
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void decrement() {
+        add(-1);
+    }
+
+    /**
+     * Replaces the value with the result of the updater.
+     *
+     * @param updater function applied to the current value
+     */
+    public void update(LongUnaryOperator updater) {
+        set(updater.applyAsLong(value));
+    }
+
+    /**
+     * Subscribes to changes with a primitive listener and immediately calls it
+     * with the current value.
+     *
+     * @param listener to be notified of state changes
+     * @return subscription that removes the listener when closed
+     */
+    public Subscription subscribeAsLong(LongConsumer listener) {
+        Subscription subscription = listeners.add(listener);
+        listener.accept(value);
+        return subscription;
+    }
+
+    @Override
+    public Subscription subscribe(Consumer<Long> listener) {
+        Subscription subscription = listeners.add(listener::accept, listener);
+        listener.accept(value);
+        return subscription;
+    }
+
+    /**
+     * Creates a LongState that follows this state through the mapper.
+     *
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public LongState mapToLong(LongUnaryOperator mapper) {
+        LongState derived = new LongState(mapper.applyAsLong(value));
+        subscribeAsLong(v -> derived.set(mapper.applyAsLong(v)));
+        return derived;
+    }
+
+    /**
+     * Creates an IntState that follows this state through the mapper.
+     *
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public IntState mapToInt(LongToIntFunction mapper) {
+        IntState derived = new IntState(mapper.applyAsInt(value));
+        subscribeAsLong(v -> derived.set(mapper.applyAsInt(v)));
+        return derived;
+    }
+
+    /**
+     * Creates a DoubleState that follows this state through the mapper.
+     *
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public DoubleState mapToDouble(LongToDoubleFunction mapper) {
+        DoubleState derived = new DoubleState(mapper.applyAsDouble(value));
+        subscribeAsLong(v -> derived.set(mapper.applyAsDouble(v)));
+        return derived;
+    }
+
+    /**
+     * Creates a BooleanState that follows this state through the predicate.
+     *
+     * @param predicate predicate applied to each value
+     * @return derived state
+     */
+    public BooleanState mapToBoolean(LongPredicate predicate) {
+        BooleanState derived = new BooleanState(predicate.test(value));
+        subscribeAsLong(v -> derived.set(predicate.test(v)));
+        return derived;
+    }
+
+    /**
+     * Creates an object state that follows this state through the mapper,
+     * without boxing the source value.
+     *
+     * @param <R> type of the mapped value
+     * @param mapper function applied to each value
+     * @return derived state
+     */
+    public <R> ReadableState<R> mapToObj(LongFunction<R> mapper) {
+        State<R> derived = new State<>(mapper.apply(value));
+        subscribeAsLong(v -> derived.set(mapper.apply(v)));
+        return derived;
+    }
+
+    private static final class Emitter extends ListenerArray<LongConsumer> {
+        private long pendingValue;
+
+        void publish(long newValue) {
+            pendingValue = newValue;
+            if (!Propagation.defer(this)) {
+                Propagation.emit(this);
+            }
+        }
+
+        @Override
+        void flushPending() {
+            long current = pendingValue;
+            for (Entry<LongConsumer> entry : entries()) {
+                LongConsumer listener = entry.listener;
+                if (listener != null) {
+                    listener.accept(current);
+                }
+            }
+        }
+    }
+}
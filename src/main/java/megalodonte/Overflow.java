@@ -0,0 +1,90 @@
+package megalodonte;
+
+import java.util.concurrent.Flow;
+
+/**
+ * What a {@link ReadableState#toPublisher(Overflow) state publisher} does with
+ * values a slow subscriber has not taken yet.
+ *
+ * <p>The state never waits for a subscriber: values are handed to a bounded
+ * queue per subscriber, and when the queue is full, or the subscriber has not
+ * requested more, the strategy decides which value is lost.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * // UI mirror: only the most recent value matters
+ * status.toPublisher(Overflow.latest()).subscribe(networkAdapter);
+ *
+ * // Report writer: keep up to 1 000 values, dropping the oldest
+ * orders.toPublisher(Overflow.buffer(1_000)).subscribe(reportWriter);
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public final class Overflow {
+
+    private static final Overflow LATEST = new Overflow(1, true);
+
+    private final int capacity;
+    private final boolean dropOldest;
+
+    private Overflow(int capacity, boolean dropOldest) {
+        this.capacity = capacity;
+        this.dropOldest = dropOldest;
+    }
+
+    /**
+     * Keeps only the most recent value not delivered yet.
+     *
+     * @return the latest-only strategy
+     */
+    public static Overflow latest() {
+        return LATEST;
+    }
+
+    /**
+     * Keeps up to {@code capacity} values not delivered yet, dropping the
+     * oldest when another arrives.
+     *
+     * @param capacity maximum number of queued values
+     * @return a bounded buffer strategy
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public static Overflow buffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        return new Overflow(capacity, true);
+    }
+
+    /**
+     * Drops the values that arrive while the subscriber has no outstanding
+     * demand, keeping at most {@link Flow#defaultBufferSize()} queued.
+     *
+     * @return the drop strategy
+     */
+    public static Overflow drop() {
+        return new Overflow(Flow.defaultBufferSize(), false);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns whether a full queue makes room by dropping its oldest value
+     * rather than the one arriving.
+     */
+    boolean dropsOldest() {
+        return dropOldest;
+    }
+
+    @Override
+    public String toString() {
+        if (this == LATEST) {
+            return "Overflow.latest()";
+        }
+        return dropOldest ? "Overflow.buffer(" + capacity + ")" : "Overflow.drop()";
+    }
+}
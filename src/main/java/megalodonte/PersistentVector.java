@@ -0,0 +1,525 @@
+package megalodonte;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list with structural sharing, used as the backing store of
+ * {@link ListState}.
+ *
+ * <p>Elements live in a 32-way trie plus a separate tail array, as in the
+ * persistent vectors of Clojure and Scala. Appending, replacing and removing the
+ * last element copy only the path from the root to the affected leaf, so they
+ * cost O(log<sub>32</sub> n) and every previous version stays valid and
+ * unchanged. Inserting or removing in the middle keeps the leaves before the
+ * change and copies the rest a whole leaf at a time, which is O(n) but only a
+ * few array copies per 32 elements; moving an element shifts only the
+ * elements it passes over.</p>
+ *
+ * <p>The list itself is read-only: the mutators inherited from {@link List}
+ * throw {@link UnsupportedOperationException}.</p>
+ *
+ * @param <E> type of elements
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final Object[] EMPTY_TAIL = new Object[0];
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, EMPTY_TAIL);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Returns the collection itself when it already is a vector, otherwise a new
+     * vector with its elements.
+     *
+     * @param <E> type of elements
+     * @param items elements to copy
+     * @return vector with the same elements
+     */
+    @SuppressWarnings("unchecked")
+    static <E> PersistentVector<E> from(Collection<? extends E> items) {
+        if (items instanceof PersistentVector) {
+            return (PersistentVector<E>) items;
+        }
+        return new Builder<E>().addAll(items).build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    /**
+     * Returns a new vector with the element appended.
+     *
+     * @param item element to append
+     * @return new vector
+     */
+    PersistentVector<E> plus(E item) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = item;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+
+        // Tail cheio: vira folha da árvore e um novo tail começa
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[]{item});
+    }
+
+    /**
+     * Returns a new vector with all the elements appended. The tail is filled
+     * a whole leaf at a time, so each element is copied once.
+     *
+     * @param items elements to append
+     * @return new vector
+     */
+    PersistentVector<E> plusAll(Collection<? extends E> items) {
+        PersistentVector<E> result = this;
+        Iterator<? extends E> iterator = items.iterator();
+        int remaining = items.size();
+        while (remaining > 0) {
+            int room = WIDTH - result.tail.length;
+            if (room == 0) {
+                result = result.plus(iterator.next());
+                remaining--;
+                continue;
+            }
+            int count = Math.min(room, remaining);
+            Object[] newTail = Arrays.copyOf(result.tail, result.tail.length + count);
+            for (int i = result.tail.length; i < newTail.length; i++) {
+                newTail[i] = iterator.next();
+            }
+            result = new PersistentVector<>(result.size + count, result.shift, result.root, newTail);
+            remaining -= count;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new vector with the element at the index replaced.
+     *
+     * @param index index of the element
+     * @param item new element
+     * @return new vector
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    PersistentVector<E> with(int index, E item) {
+        checkIndex(index);
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = item;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+        return new PersistentVector<>(size, shift, assoc(shift, root, index, item), tail);
+    }
+
+    /**
+     * Returns a new vector without the last element.
+     *
+     * @return new vector
+     * @throws IllegalStateException if the vector is empty
+     */
+    PersistentVector<E> minusLast() {
+        if (size == 0) {
+            throw new IllegalStateException("Vector is empty");
+        }
+        if (size == 1) {
+            return empty();
+        }
+        if (size - tailOffset() > 1) {
+            return new PersistentVector<>(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+
+        // O tail tinha um único elemento: a última folha da árvore vira o novo tail
+        Object[] newTail = leafFor(size - 2);
+        Object[] newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null) {
+            newRoot = EMPTY_NODE;
+        }
+        if (shift > BITS && newRoot[1] == null) {
+            newRoot = (Object[]) newRoot[0];
+            newShift -= BITS;
+        }
+        return new PersistentVector<>(size - 1, newShift, newRoot, newTail);
+    }
+
+    /**
+     * Returns a new vector without the element at the index. Removing the last
+     * element is O(log n); any other position rebuilds the vector.
+     *
+     * @param index index of the element
+     * @return new vector
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    PersistentVector<E> minus(int index) {
+        checkIndex(index);
+        return splice(index, 1, Collections.emptyList());
+    }
+
+    /**
+     * Returns a new vector with the element inserted at the index. Inserting at
+     * the end is an append; any other position rebuilds the vector.
+     *
+     * @param index position of the new element, from 0 to size
+     * @param item element to insert
+     * @return new vector
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    PersistentVector<E> insert(int index, E item) {
+        return splice(index, 0, Collections.singletonList(item));
+    }
+
+    /**
+     * Returns a new vector where {@code count} elements starting at
+     * {@code from} are replaced by the given elements. Changes confined to the
+     * end of the vector keep the rest of the tree; anything else rebuilds it.
+     *
+     * @param from index of the first element to remove, from 0 to size
+     * @param count number of elements to remove
+     * @param items elements to insert at {@code from}
+     * @return new vector
+     * @throws IndexOutOfBoundsException if the range is invalid
+     */
+    PersistentVector<E> splice(int from, int count, Collection<? extends E> items) {
+        if (from < 0 || count < 0 || from + count > size) {
+            throw new IndexOutOfBoundsException("Range out of bounds: " + from + ", " + count);
+        }
+        if (from + count < size) {
+            return new Builder<E>()
+                    .addRange(this, 0, from)
+                    .addAll(items)
+                    .addRange(this, from + count, size)
+                    .build();
+        }
+
+        // Só o fim muda: remove a cauda, se for barato, e acrescenta os novos
+        PersistentVector<E> result = this;
+        if (count * WIDTH < from) {
+            for (int i = 0; i < count; i++) {
+                result = result.minusLast();
+            }
+        } else if (count > 0) {
+            result = new Builder<E>().addRange(this, 0, from).build();
+        }
+        return result.plusAll(items);
+    }
+
+    /**
+     * Returns a new vector with the element at {@code from} moved to
+     * {@code to}. Only the elements between both positions are shifted, so
+     * moving by a few places costs a few path copies.
+     *
+     * @param from current index of the element
+     * @param to index of the element in the new vector
+     * @return new vector
+     * @throws IndexOutOfBoundsException if an index is invalid
+     */
+    PersistentVector<E> move(int from, int to) {
+        checkIndex(from);
+        checkIndex(to);
+        E item = get(from);
+        PersistentVector<E> result = this;
+        for (int i = from; i < to; i++) {
+            result = result.with(i, get(i + 1));
+        }
+        for (int i = from; i > to; i--) {
+            result = result.with(i, get(i - 1));
+        }
+        return result.with(to, item);
+    }
+
+    @Override
+    public int indexOf(Object item) {
+        // Varre folha por folha em vez de descer a árvore a cada get
+        for (int start = 0; start < size; start += WIDTH) {
+            Object[] leaf = leafFor(start);
+            for (int i = 0; i < leaf.length && start + i < size; i++) {
+                if (Objects.equals(item, leaf[i])) {
+                    return start + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index;
+            private Object[] leaf;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if ((index & MASK) == 0 || leaf == null) {
+                    leaf = leafFor(index);
+                }
+                return (E) leaf[index++ & MASK];
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (other instanceof List && ((List<?>) other).size() != size) {
+            return false;
+        }
+        if (other instanceof PersistentVector) {
+            PersistentVector<?> vector = (PersistentVector<?>) other;
+            for (int i = 0; i < size; i++) {
+                if (!Objects.equals(get(i), vector.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index out of bounds: " + index);
+        }
+    }
+
+    private Object[] leafFor(int index) {
+        checkIndex(index);
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] result = parent.clone();
+        Object[] toInsert;
+        if (level == BITS) {
+            toInsert = tailNode;
+        } else {
+            Object[] child = (Object[]) parent[subIndex];
+            toInsert = child != null
+                    ? pushTail(level - BITS, child, tailNode)
+                    : newPath(level - BITS, tailNode);
+        }
+        result[subIndex] = toInsert;
+        return result;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] result = new Object[WIDTH];
+        result[0] = newPath(level - BITS, node);
+        return result;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object item) {
+        Object[] result = node.clone();
+        if (level == 0) {
+            result[index & MASK] = item;
+        } else {
+            int subIndex = (index >>> level) & MASK;
+            result[subIndex] = assoc(level - BITS, (Object[]) node[subIndex], index, item);
+        }
+        return result;
+    }
+
+    private Object[] popTail(int level, Object[] node) {
+        int subIndex = ((size - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Object[] newChild = popTail(level - BITS, (Object[]) node[subIndex]);
+            if (newChild == null && subIndex == 0) {
+                return null;
+            }
+            Object[] result = node.clone();
+            result[subIndex] = newChild;
+            return result;
+        }
+        if (subIndex == 0) {
+            return null;
+        }
+        Object[] result = node.clone();
+        result[subIndex] = null;
+        return result;
+    }
+
+    /**
+     * Builds a vector from scratch, a whole leaf at a time. Full leaves of
+     * another vector that land on a leaf boundary are shared instead of
+     * copied, and the trie is assembled bottom-up once at the end, so nothing
+     * is path-copied along the way. A builder is used once and discarded.
+     *
+     * @param <E> type of elements
+     */
+    static final class Builder<E> {
+
+        private final List<Object[]> leaves = new ArrayList<>();
+        private Object[] buffer = new Object[WIDTH];
+        private int fill;
+        private int size;
+
+        Builder<E> add(E item) {
+            buffer[fill++] = item;
+            size++;
+            if (fill == WIDTH) {
+                flush();
+            }
+            return this;
+        }
+
+        Builder<E> addAll(Collection<? extends E> items) {
+            if (items instanceof PersistentVector) {
+                PersistentVector<? extends E> vector = (PersistentVector<? extends E>) items;
+                return addRange(vector, 0, vector.size);
+            }
+            Object[] array = items.toArray();
+            copy(array, 0, array.length);
+            return this;
+        }
+
+        /**
+         * Appends the elements of {@code source} from {@code start} (inclusive)
+         * to {@code end} (exclusive).
+         */
+        Builder<E> addRange(PersistentVector<? extends E> source, int start, int end) {
+            int index = start;
+            while (index < end) {
+                Object[] leaf = source.leafFor(index);
+                int offset = index & MASK;
+                int length = Math.min(leaf.length - offset, end - index);
+                if (fill == 0 && length == WIDTH) {
+                    // Folha inteira e alinhada: as folhas são imutáveis, então dá para compartilhar
+                    leaves.add(leaf);
+                    size += WIDTH;
+                } else {
+                    copy(leaf, offset, length);
+                }
+                index += length;
+            }
+            return this;
+        }
+
+        PersistentVector<E> build() {
+            if (size == 0) {
+                return empty();
+            }
+            Object[] tail = fill > 0 ? Arrays.copyOf(buffer, fill) : leaves.remove(leaves.size() - 1);
+            if (leaves.isEmpty()) {
+                return new PersistentVector<>(size, BITS, EMPTY_NODE, tail);
+            }
+
+            // Monta a árvore de baixo para cima, agrupando 32 nós por pai
+            List<Object[]> nodes = leaves;
+            int shift = BITS;
+            while (true) {
+                List<Object[]> parents = new ArrayList<>((nodes.size() + MASK) >>> BITS);
+                for (int i = 0; i < nodes.size(); i += WIDTH) {
+                    Object[] parent = new Object[WIDTH];
+                    int end = Math.min(i + WIDTH, nodes.size());
+                    for (int j = i; j < end; j++) {
+                        parent[j - i] = nodes.get(j);
+                    }
+                    parents.add(parent);
+                }
+                if (parents.size() == 1) {
+                    return new PersistentVector<>(size, shift, parents.get(0), tail);
+                }
+                nodes = parents;
+                shift += BITS;
+            }
+        }
+
+        private void copy(Object[] source, int offset, int length) {
+            while (length > 0) {
+                int count = Math.min(WIDTH - fill, length);
+                System.arraycopy(source, offset, buffer, fill, count);
+                fill += count;
+                size += count;
+                offset += count;
+                length -= count;
+                if (fill == WIDTH) {
+                    flush();
+                }
+            }
+        }
+
+        private void flush() {
+            leaves.add(buffer);
+            buffer = new Object[WIDTH];
+            fill = 0;
+        }
+    }
+}
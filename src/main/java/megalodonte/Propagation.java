@@ -0,0 +1,383 @@
+package megalodonte;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Per-thread coordinator of state notifications.
+ *
+ * <p>Every change runs as a <em>wave</em>. The state that changed notifies its
+ * own listeners right away; anything that happens as a consequence is queued
+ * and processed when the wave ends:</p>
+ * <ul>
+ *   <li>states set by listeners enqueue themselves once and remember only
+ *       their latest value;</li>
+ *   <li>computed states whose dependencies changed are only marked dirty and
+ *       are recomputed later, lowest {@link Computation#height height} first.</li>
+ * </ul>
+ *
+ * <p>Because a computation is recomputed only after every computation below it
+ * has settled, a computed state that is reached through several paths (a
+ * "diamond") is recomputed once and its subscribers never see an intermediate
+ * value. A {@link State#batch(Runnable) batch} is just a wave that also defers
+ * the notification of the states set inside it.</p>
+ *
+ * <p>When a {@link #parallelPool parallel pool} is set, the dirty
+ * computations of one height that are marked {@link Computation#parallel} are
+ * evaluated concurrently on it. They cannot depend on each other, since a
+ * computation is always higher than its dependencies. Their results are then
+ * published on the owner thread, in the same order as a sequential wave.</p>
+ *
+ * <p>It also holds the tracking context used by automatically tracked computed
+ * states: while {@link #track} runs a computation, every {@link #read} is
+ * recorded as a dependency.</p>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class Propagation {
+
+    private static final ThreadLocal<Propagation> CURRENT = ThreadLocal.withInitial(Propagation::new);
+
+    /**
+     * Work that can be postponed to the end of the current wave. The flag keeps
+     * an entry from being queued twice.
+     */
+    abstract static class Pending {
+        boolean pending;
+
+        abstract void flushPending();
+
+        /**
+         * Called instead of {@link #flushPending()} when the flush is aborted
+         * by an exception, so no stale value is kept.
+         */
+        void discardPending() {
+        }
+    }
+
+    /**
+     * Node of the dependency graph that derives its value from other states.
+     * Sources have height 0 and a computation is one level above its highest
+     * dependency.
+     */
+    abstract static class Computation {
+        int height = 1;
+        boolean dirty;
+        /** Computations that depend on this one, raised along with it. */
+        final ArrayList<Computation> dependents = new ArrayList<>();
+        /** Whether {@link #evaluateInParallel()} may run on another thread. */
+        boolean parallel;
+        private long order;
+
+        abstract void recompute();
+
+        /**
+         * Computes the new value without publishing it. Only called on
+         * parallel computations, possibly on a pool thread; must not throw.
+         */
+        void evaluateInParallel() {
+        }
+
+        /**
+         * Publishes the value computed by {@link #evaluateInParallel()}, on the owner
+         * thread.
+         */
+        void publishEvaluated() {
+            recompute();
+        }
+
+        /**
+         * Drops the value computed by {@link #evaluateInParallel()} without
+         * publishing it, because a dependency changed after it was computed.
+         */
+        void discardEvaluated() {
+        }
+    }
+
+    /** Pool evaluating parallel computations, or null to evaluate them in the wave. */
+    static volatile ForkJoinPool parallelPool;
+
+    private final ArrayList<Pending> queue = new ArrayList<>();
+    private final PriorityQueue<Computation> dirty = new PriorityQueue<>((a, b) ->
+            a.height != b.height ? Integer.compare(a.height, b.height) : Long.compare(a.order, b.order));
+    private long sequence;
+    private int depth;
+    private ArrayList<ReadableState<?>> reads;
+
+    private Propagation() {
+    }
+
+    /**
+     * Runs the action with notifications deferred until the outermost batch ends.
+     *
+     * @param action code that updates states
+     */
+    static void batch(Runnable action) {
+        Propagation propagation = CURRENT.get();
+        propagation.depth++;
+        try {
+            action.run();
+        } finally {
+            if (--propagation.depth == 0) {
+                propagation.flush();
+            }
+        }
+    }
+
+    /**
+     * Queues the entry if a wave is running on this thread.
+     *
+     * @param entry work to postpone
+     * @return true if the entry was (or already is) queued, false if the caller
+     *         should start a wave with {@link #emit}
+     */
+    static boolean defer(Pending entry) {
+        Propagation propagation = CURRENT.get();
+        if (propagation.depth == 0) {
+            return false;
+        }
+        if (!entry.pending) {
+            entry.pending = true;
+            propagation.queue.add(entry);
+        }
+        return true;
+    }
+
+    /**
+     * Delivers a change now and then settles everything it caused.
+     *
+     * @param entry state whose pending change should be delivered
+     */
+    static void emit(Pending entry) {
+        Propagation propagation = CURRENT.get();
+        ArrayList<ReadableState<?>> tracking = propagation.reads;
+        propagation.reads = null; // listeners never become dependencies
+        propagation.depth++;
+        try {
+            entry.flushPending();
+        } finally {
+            propagation.reads = tracking;
+            if (--propagation.depth == 0) {
+                propagation.flush();
+            }
+        }
+    }
+
+    /**
+     * Marks a computation as needing a recompute in the current wave, or starts
+     * a wave for it when called outside one.
+     *
+     * @param computation computation whose dependencies changed
+     */
+    static void markDirty(Computation computation) {
+        Propagation propagation = CURRENT.get();
+        if (!computation.dirty) {
+            computation.dirty = true;
+            computation.order = propagation.sequence++;
+            propagation.dirty.add(computation);
+        }
+        if (propagation.depth == 0) {
+            propagation.flush();
+        }
+    }
+
+    /**
+     * Raises the height of a computation whose dependencies moved up, and of
+     * every computation that depends on it, so each stays above its
+     * dependencies. Dirty computations are repositioned in the wave.
+     *
+     * @param computation computation whose dependencies changed
+     * @param height new height, ignored if not above the current one
+     */
+    static void raiseHeight(Computation computation, int height) {
+        if (height <= computation.height) {
+            return;
+        }
+        Propagation propagation = CURRENT.get();
+        ArrayDeque<Computation> raised = new ArrayDeque<>();
+        propagation.moveTo(computation, height);
+        raised.push(computation);
+        while (!raised.isEmpty()) {
+            Computation current = raised.pop();
+            for (Computation dependent : current.dependents) {
+                if (dependent.height <= current.height) {
+                    propagation.moveTo(dependent, current.height + 1);
+                    raised.push(dependent);
+                }
+            }
+        }
+    }
+
+    private void moveTo(Computation computation, int height) {
+        // A fila ordena pela altura: sai antes de mudar e volta na nova posição
+        boolean queued = computation.dirty && dirty.remove(computation);
+        computation.height = height;
+        if (queued) {
+            dirty.add(computation);
+        }
+    }
+
+    /**
+     * Runs the action outside any tracking context, so the states it reads do
+     * not become dependencies of the computation being tracked.
+     *
+     * @param action code to run
+     * @param <T> type of the result
+     * @return the result of the action
+     */
+    static <T> T untracked(Supplier<T> action) {
+        return track(action, null);
+    }
+
+    /**
+     * Runs the computation recording the states read through {@link #read}.
+     * Tracking contexts nest, so a computation that reads another lazily
+     * computed state does not leak that state's dependencies.
+     *
+     * @param compute computation to run
+     * @param reads list receiving the states read, without duplicates
+     * @param <T> type of the computed value
+     * @return the computed value
+     */
+    static <T> T track(Supplier<T> compute, ArrayList<ReadableState<?>> reads) {
+        Propagation propagation = CURRENT.get();
+        ArrayList<ReadableState<?>> previous = propagation.reads;
+        propagation.reads = reads;
+        try {
+            return compute.get();
+        } finally {
+            propagation.reads = previous;
+        }
+    }
+
+    /**
+     * Records a read of the state in the running tracking context, if any.
+     *
+     * @param state state being read
+     */
+    static void read(ReadableState<?> state) {
+        ArrayList<ReadableState<?>> reads = CURRENT.get().reads;
+        if (reads == null) {
+            return;
+        }
+        for (int i = 0; i < reads.size(); i++) {
+            if (reads.get(i) == state) {
+                return;
+            }
+        }
+        reads.add(state);
+    }
+
+    private void flush() {
+        ArrayList<ReadableState<?>> tracking = reads;
+        reads = null;
+        depth++;
+        try {
+            while (true) {
+                if (!queue.isEmpty()) {
+                    flushQueue();
+                    continue;
+                }
+                Computation computation = dirty.poll();
+                if (computation == null) {
+                    break;
+                }
+                computation.dirty = false;
+                ForkJoinPool pool = parallelPool;
+                Computation next = dirty.peek();
+                if (pool != null && computation.parallel && next != null && next.height == computation.height) {
+                    recomputeLevel(computation, pool);
+                } else {
+                    computation.recompute();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            discardAll();
+            throw e;
+        } finally {
+            depth--;
+            reads = tracking;
+        }
+    }
+
+    /**
+     * Recomputes every dirty computation at the height of the first one,
+     * evaluating the parallel ones concurrently, then publishes all of them in
+     * order on this thread.
+     */
+    private void recomputeLevel(Computation first, ForkJoinPool pool) {
+        ArrayList<Computation> level = new ArrayList<>();
+        level.add(first);
+        while (!dirty.isEmpty() && dirty.peek().height == first.height) {
+            Computation computation = dirty.poll();
+            computation.dirty = false;
+            level.add(computation);
+        }
+
+        ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+        Computation local = null;
+        for (Computation computation : level) {
+            if (!computation.parallel) {
+                continue;
+            }
+            if (local == null) {
+                local = computation; // a thread dona também trabalha
+            } else {
+                tasks.add(pool.submit(computation::evaluateInParallel));
+            }
+        }
+        local.evaluateInParallel();
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        for (Computation computation : level) {
+            if (computation.dirty) {
+                // Um listener de um irmão mudou uma dependência: o resultado
+                // antecipado é velho, e o nó já voltou à fila para ser recalculado
+                if (computation.parallel) {
+                    computation.discardEvaluated();
+                }
+                continue;
+            }
+            if (computation.parallel) {
+                computation.publishEvaluated();
+            } else {
+                computation.recompute();
+            }
+            if (!queue.isEmpty()) {
+                flushQueue();
+            }
+        }
+    }
+
+    private void flushQueue() {
+        // Entradas adicionadas durante o flush entram no mesmo laço
+        for (int i = 0; i < queue.size(); i++) {
+            Pending entry = queue.get(i);
+            entry.pending = false;
+            queue.set(i, null);
+            entry.flushPending();
+        }
+        queue.clear();
+    }
+
+    private void discardAll() {
+        for (Pending entry : queue) {
+            if (entry != null) {
+                entry.pending = false;
+                entry.discardPending();
+            }
+        }
+        queue.clear();
+        Computation computation;
+        while ((computation = dirty.poll()) != null) {
+            computation.dirty = false;
+        }
+    }
+}
@@ -14,7 +14,10 @@ package megalodonte;
  * String value = readOnlyName.get();
  * 
  * // Subscribe to changes
- * readOnlyName.subscribe(newValue -> System.out.println("Changed to: " + newValue));
+ * Subscription subscription = readOnlyName.subscribe(newValue -> System.out.println("Changed to: " + newValue));
+ *
+ * // Stop listening
+ * subscription.close();
  * }</pre>
  * 
  * @param <T> type of the value held by this state
@@ -24,13 +27,185 @@ package megalodonte;
 public interface ReadableState<T> {
     T get();
     boolean isNull();
-    void subscribe(java.util.function.Consumer<T> listener);
 
+    /**
+     * Subscribes to changes and immediately calls the listener with the current value.
+     *
+     * @param listener to be notified of changes
+     * @return subscription that removes the listener when closed
+     */
+    Subscription subscribe(java.util.function.Consumer<T> listener);
+
+    /**
+     * Returns a {@link java.util.concurrent.Flow.Publisher} of the values of
+     * this state that keeps only the latest value for slow subscribers.
+     *
+     * @return publisher delivering on virtual threads
+     * @see #toPublisher(Overflow, java.util.concurrent.Executor)
+     */
+    default java.util.concurrent.Flow.Publisher<T> toPublisher() {
+        return toPublisher(Overflow.latest());
+    }
+
+    /**
+     * Returns a {@link java.util.concurrent.Flow.Publisher} of the values of
+     * this state, with the given overflow strategy for slow subscribers.
+     *
+     * @param overflow what to drop when a subscriber falls behind
+     * @return publisher delivering on virtual threads
+     * @see #toPublisher(Overflow, java.util.concurrent.Executor)
+     */
+    default java.util.concurrent.Flow.Publisher<T> toPublisher(Overflow overflow) {
+        return toPublisher(overflow, DefaultExecutor.get());
+    }
+
+    /**
+     * Returns a {@link java.util.concurrent.Flow.Publisher} of the values of
+     * this state. Each subscriber first receives the current value and then
+     * every change, honouring its demand. Changes are queued per subscriber
+     * without ever blocking the thread that changes the state; when a
+     * subscriber falls behind, the overflow strategy decides what is dropped.
+     *
+     * <pre>{@code
+     * orders.toPublisher(Overflow.buffer(1_000), reportExecutor).subscribe(reportWriter);
+     * }</pre>
+     *
+     * @param overflow what to drop when a subscriber falls behind
+     * @param executor runs the calls to the subscribers
+     * @return publisher of the values of this state
+     */
+    default java.util.concurrent.Flow.Publisher<T> toPublisher(Overflow overflow,
+                                                              java.util.concurrent.Executor executor) {
+        return new StatePublisher<>(this, overflow, executor);
+    }
+
+    /**
+     * Returns a state that takes the value of this one only after it stopped
+     * changing for the given time, on the FX thread.
+     *
+     * @param quietPeriod how long the value must stay unchanged
+     * @return debounced state
+     * @see #debounce(java.time.Duration, TimeScheduler)
+     */
+    default ReadableState<T> debounce(java.time.Duration quietPeriod) {
+        return debounce(quietPeriod, TimeScheduler.fx());
+    }
+
+    /**
+     * Returns a state that takes the value of this one only after it stopped
+     * changing for the given time, so a burst of changes reaches its
+     * subscribers once, with the last value.
+     *
+     * <pre>{@code
+     * ReadableState<String> query = searchText.debounce(Duration.ofMillis(300));
+     * query.subscribe(text -> rows.set(filter(allRows, text))); // once per pause in typing
+     * }</pre>
+     *
+     * @param quietPeriod how long the value must stay unchanged
+     * @param scheduler clock and timer of the operator
+     * @return debounced state
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    default ReadableState<T> debounce(java.time.Duration quietPeriod, TimeScheduler scheduler) {
+        return TimedState.create(this, TimedState.Mode.DEBOUNCE, quietPeriod, scheduler);
+    }
+
+    /**
+     * Returns a state that takes the first change of this one at once and then
+     * at most one change per window, on the FX thread.
+     *
+     * @param window minimum time between two changes of the result
+     * @return throttled state
+     * @see #throttle(java.time.Duration, TimeScheduler)
+     */
+    default ReadableState<T> throttle(java.time.Duration window) {
+        return throttle(window, TimeScheduler.fx());
+    }
+
+    /**
+     * Returns a state that takes the first change of this one at once and then
+     * ignores the following ones for the window; if there were any, the last
+     * of them is taken when the window ends.
+     *
+     * @param window minimum time between two changes of the result
+     * @param scheduler clock and timer of the operator
+     * @return throttled state
+     * @throws IllegalArgumentException if the window is not positive
+     */
+    default ReadableState<T> throttle(java.time.Duration window, TimeScheduler scheduler) {
+        return TimedState.create(this, TimedState.Mode.THROTTLE, window, scheduler);
+    }
+
+    /**
+     * Returns a state that takes the latest value of this one at fixed
+     * intervals, on the FX thread.
+     *
+     * @param interval time between two samples
+     * @return sampled state
+     * @see #sample(java.time.Duration, TimeScheduler)
+     */
+    default ReadableState<T> sample(java.time.Duration interval) {
+        return sample(interval, TimeScheduler.fx());
+    }
+
+    /**
+     * Returns a state that takes the latest value of this one at fixed
+     * intervals, counted from the first subscription. Intervals without
+     * changes cost nothing: no timer runs while the value stays the same.
+     *
+     * @param interval time between two samples
+     * @param scheduler clock and timer of the operator
+     * @return sampled state
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    default ReadableState<T> sample(java.time.Duration interval, TimeScheduler scheduler) {
+        return TimedState.create(this, TimedState.Mode.SAMPLE, interval, scheduler);
+    }
+
+    /**
+     * Returns a state holding the mapped value of this one.
+     *
+     * <p>The result is lazy: it subscribes to this state only while it has
+     * subscribers itself and unsubscribes when the last one leaves. Operators
+     * chained on it ({@code map}, {@link #filter}, {@link #distinctUntilChanged})
+     * are fused into the same node, so a chain costs one listener per change
+     * however long it is.</p>
+     *
+     * <pre>{@code
+     * ReadableState<String> label = price.map(p -> p * 1.1).map(p -> String.format("%.2f", p));
+     * Subscription s = label.subscribe(text::setText); // price now has one listener
+     * s.close();                                       // and none again
+     * }</pre>
+     *
+     * @param <R> type of the mapped value
+     * @param mapper function applied to each value
+     * @return lazily mapped state
+     */
     default <R> ReadableState<R> map(java.util.function.Function<T, R> mapper) {
-        State<R> derived = new State<>(mapper.apply(get()));
+        return FusedState.map(this, mapper);
+    }
 
-        subscribe(value -> derived.set(mapper.apply(value)));
+    /**
+     * Returns a state that follows this one but only takes the values accepted
+     * by the predicate, keeping the last accepted value otherwise. Lazy and
+     * fused like {@link #map}.
+     *
+     * @param predicate test of the values to take
+     * @return lazily filtered state
+     */
+    default ReadableState<T> filter(java.util.function.Predicate<? super T> predicate) {
+        return FusedState.filter(this, predicate);
+    }
 
-        return derived;
+    /**
+     * Returns a state that follows this one but drops a change equal to the
+     * previous value that reached it. Placed before an expensive
+     * {@link #map}, it keeps the mapper from running again for an equal input.
+     * Lazy and fused like {@link #map}.
+     *
+     * @return lazily deduplicated state
+     */
+    default ReadableState<T> distinctUntilChanged() {
+        return FusedState.distinct(this);
     }
 }
\ No newline at end of file
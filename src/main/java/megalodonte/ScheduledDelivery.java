@@ -0,0 +1,54 @@
+package megalodonte;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Latest-value mailbox between the thread that changes a state and its
+ * {@link Scheduler}.
+ *
+ * <p>{@link #offer} swaps the new value in and schedules a delivery only when
+ * the slot was empty, so any number of changes before the scheduler runs cost
+ * one scheduled task and deliver only the last value.</p>
+ *
+ * @param <T> type of the delivered value
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class ScheduledDelivery<T> implements Runnable {
+
+    private static final Object EMPTY = new Object();
+
+    private final Scheduler scheduler;
+    private final Consumer<T> target;
+    private final AtomicReference<Object> latest = new AtomicReference<>(EMPTY);
+
+    ScheduledDelivery(Scheduler scheduler, Consumer<T> target) {
+        this.scheduler = scheduler;
+        this.target = target;
+    }
+
+    Scheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Keeps the value for the next delivery, replacing one not delivered yet.
+     *
+     * @param value value to deliver
+     */
+    void offer(T value) {
+        if (latest.getAndSet(value) == EMPTY) {
+            scheduler.schedule(this);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void run() {
+        Object value = latest.getAndSet(EMPTY);
+        if (value != EMPTY) {
+            target.accept((T) value);
+        }
+    }
+}
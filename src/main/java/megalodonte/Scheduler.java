@@ -0,0 +1,45 @@
+package megalodonte;
+
+/**
+ * Decides on which thread, and when, the subscribers of a state are notified.
+ *
+ * <p>Without a scheduler, {@link State#set} and the {@link ListState} mutators
+ * call the subscribers synchronously on the thread that changed the state. A
+ * state {@link State#deliverOn delivering on} a scheduler updates its value
+ * right away but hands the notification to {@link #schedule}, and changes made
+ * before the notification runs are coalesced: only the latest value of each
+ * state is delivered.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * State<Quote> quote = State.of(Quote.EMPTY).deliverOn(Scheduler.fx());
+ * quote.subscribe(q -> priceLabel.setText(q.price()));
+ *
+ * // feed thread: thousands of sets, at most one notification per FX pulse
+ * feed.onQuote(quote::set);
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface Scheduler {
+
+    /**
+     * Runs the task later on the scheduler's thread. May be called from any thread.
+     *
+     * @param task notification to run
+     */
+    void schedule(Runnable task);
+
+    /**
+     * Returns the scheduler of the JavaFX application thread. All the
+     * notifications scheduled until the FX thread gets to them run in a single
+     * {@code Platform.runLater}, as one {@link State#batch batch}.
+     *
+     * @return the shared FX scheduler
+     */
+    static Scheduler fx() {
+        return FxScheduler.INSTANCE;
+    }
+}
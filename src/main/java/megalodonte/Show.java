@@ -4,6 +4,7 @@ import javafx.scene.Node;
 import javafx.scene.layout.Pane;
 import megalodonte.components.Component;
 
+import java.time.Duration;
 import java.util.function.Supplier;
 
 /**
@@ -12,7 +13,12 @@ import java.util.function.Supplier;
  * <p>Show component conditionally renders a child component based on
  * a boolean state condition. When the condition changes, it automatically
  * shows or hides the child component by adding or removing it from the
- * JavaFX scene graph.</p>
+ * JavaFX scene graph. With a false branch, the condition swaps between the two
+ * children instead; see {@link Switch} for more than two branches.</p>
+ *
+ * <p>By default a hidden child is discarded and created again the next time it
+ * is shown. With {@link #keepAlive(int, Duration) keep-alive} the hidden child
+ * is only detached and kept, so showing it again just reattaches its node.</p>
  * 
  * <h2>Example Usage:</h2>
  * <pre>{@code
@@ -21,6 +27,10 @@ import java.util.function.Supplier;
  * 
  * isVisible.set(false); // Automatically hides the content
  * isVisible.set(true);  // Automatically shows the content
+ *
+ * // Heavy panel: keep it for up to 5 minutes while hidden
+ * Show details = Show.when(showDetails, DetailsPanel::new)
+ *     .keepAlive(1, Duration.ofMinutes(5));
  * }</pre>
  * 
  * @author Eliezer
@@ -43,6 +53,8 @@ public final class Show extends Component {
     private final ReadableState<Boolean> condition;
     private final Supplier<Component> childFactory;
     private Component mountedChild;
+    private boolean mountedBranch;
+    private BranchCache<Boolean, Component> keptChildren;
     
     // For conditional builder
     private Supplier<Component> trueComponent;
@@ -53,14 +65,19 @@ public final class Show extends Component {
      * 
      * @param condition reactive boolean state controlling visibility
      * @param childFactory factory that creates the child component
+     * @param falseFactory factory for the child shown while the condition is
+     *                     false, or null to show nothing
      */
     private Show(
             ReadableState<Boolean> condition,
-            Supplier<Component> childFactory
+            Supplier<Component> childFactory,
+            Supplier<Component> falseFactory
             ) {
         super(new Pane());
         this.condition = condition;
         this.childFactory = childFactory;
+        this.trueComponent = childFactory;
+        this.falseComponent = falseFactory;
         
         condition.subscribe(this::update);
     }
@@ -76,7 +93,7 @@ public final class Show extends Component {
             ReadableState<Boolean> condition,
             Supplier<Component> childFactory
             ) {
-        return new Show(condition, childFactory);
+        return new Show(condition, childFactory, null);
     }
     
 /**
@@ -92,29 +109,86 @@ public final class Show extends Component {
             Supplier<Component> trueComponent,
             Supplier<Component> falseComponent
             ) {
-        return new Show(condition, () -> {
-            boolean conditionValue = condition.get();
-            return conditionValue ? trueComponent.get() : falseComponent.get();
-        });
+        return new Show(condition, trueComponent, falseComponent);
     }
     
+    /**
+     * Keeps hidden children instead of discarding them, without limit of time.
+     *
+     * @return this Show, for chaining
+     */
+    public Show keepAlive() {
+        return keepAlive(1, null);
+    }
+
+    /**
+     * Keeps hidden children so they are reattached instead of recreated. At
+     * most {@code maxCached} hidden children are kept, the least recently
+     * hidden being dropped first, and a child hidden for longer than
+     * {@code ttl} is dropped too, on the FX thread.
+     *
+     * @param maxCached maximum number of hidden children kept
+     * @param ttl how long a hidden child is kept, or null for no limit
+     * @return this Show, for chaining
+     * @throws IllegalArgumentException if maxCached is negative or ttl is not positive
+     */
+    public Show keepAlive(int maxCached, Duration ttl) {
+        return keepAlive(maxCached, ttl, TimeScheduler.fx());
+    }
+
+    /**
+     * Keeps hidden children as {@link #keepAlive(int, Duration)} does, timing
+     * the time-to-live with the given scheduler.
+     *
+     * @param maxCached maximum number of hidden children kept
+     * @param ttl how long a hidden child is kept, or null for no limit
+     * @param scheduler clock and timer that drop expired children
+     * @return this Show, for chaining
+     * @throws IllegalArgumentException if maxCached is negative or ttl is not positive
+     */
+    public Show keepAlive(int maxCached, Duration ttl, TimeScheduler scheduler) {
+        keptChildren = new BranchCache<>(maxCached, ttl, scheduler);
+        return this;
+    }
+
+    /**
+     * Drops the hidden children kept alive, so the next show creates a new one.
+     */
+    public void evictCached() {
+        if (keptChildren != null) {
+            keptChildren.clear();
+        }
+    }
+
     /**
      * Updates the component visibility based on the condition.
-     * Shows child when condition becomes true, hides when false.
+     * Shows child when condition becomes true, hides when false
+     * (or shows the false branch, if there is one).
      * 
      * @param visible the current visibility condition
      */
     private void update(boolean visible) {
         Pane pane = (Pane) node;
+        if (mountedChild != null && mountedBranch == visible) {
+            return;
+        }
 
-        if (visible && mountedChild == null) {
-            mountedChild = childFactory.get();
-            pane.getChildren().add(mountedChild.getNode());
+        Supplier<Component> factory = visible ? childFactory : falseComponent;
+        Component next = factory != null && keptChildren != null ? keptChildren.take(visible) : null;
+        if (mountedChild != null) {
+            if (keptChildren != null) {
+                // Só desanexa o nó: o componente continua vivo no cache
+                keptChildren.put(mountedBranch, mountedChild);
+            }
+            mountedChild = null;
         }
 
-        if (!visible && mountedChild != null) {
+        if (factory == null) {
             pane.getChildren().clear();
-            mountedChild = null;
+            return;
         }
+        mountedChild = next != null ? next : factory.get();
+        mountedBranch = visible;
+        pane.getChildren().setAll(mountedChild.getNode());
     }
 }
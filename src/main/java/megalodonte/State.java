@@ -1,10 +1,8 @@
 package megalodonte;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Flow;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 
 /**
  * Mutable reactive state holder that notifies subscribers when its value changes.
@@ -14,6 +12,11 @@ import java.util.function.Predicate;
  * Whenever value changes, all registered subscribers are automatically notified.</p>
  * 
  * <p>For list operations, create {@link ListState} or use specialized methods.</p>
+ *
+ * <p>Subscribers are notified on the thread that calls {@code set()}, unless the
+ * state {@link #deliverOn delivers on} a {@link Scheduler}. A State is not
+ * thread-safe: read and set it on the thread that owns it. For a value
+ * updated from worker threads use {@link ConcurrentState}.</p>
  * 
  * <h2>Example Usage:</h2>
  * <pre>{@code
@@ -34,7 +37,8 @@ import java.util.function.Predicate;
 public class State<T> implements ReadableState<T> {
 
     private T value;
-    private final List<Consumer<T>> listeners = new ArrayList<>();
+    private final Listeners<T> listeners = new Listeners<>();
+    private ScheduledDelivery<T> delivery;
 
     public State(T initial) {
         this.value = initial;
@@ -51,12 +55,113 @@ public class State<T> implements ReadableState<T> {
         return new State<>(initial);
     }
 
+    /**
+     * Creates a state that follows a {@link Flow.Publisher}, delivering its
+     * values on the FX thread.
+     *
+     * @param <T> type of value
+     * @param publisher source of the values
+     * @param initial value until the first one is received
+     * @return a new State fed by the publisher
+     * @see #fromPublisher(Flow.Publisher, Object, Scheduler)
+     */
+    public static <T> State<T> fromPublisher(Flow.Publisher<? extends T> publisher, T initial) {
+        return fromPublisher(publisher, initial, Scheduler.fx());
+    }
+
+    /**
+     * Creates a state that follows a {@link Flow.Publisher}. The values are
+     * set through the scheduler, and the ones received before it runs are
+     * coalesced into the latest, so a fast publisher never queues values.
+     * Errors and completion end the updates, keeping the last value.
+     * {@link ListenerManager#dispose(Object) Disposing} the state cancels the
+     * subscription to the publisher; so does the next value published after
+     * the state is no longer referenced and was garbage collected.
+     *
+     * <pre>{@code
+     * State<Quote> quote = State.fromPublisher(quoteFeed, Quote.EMPTY, Scheduler.fx());
+     * ...
+     * ListenerManager.dispose(quote); // stops following the feed
+     * }</pre>
+     *
+     * @param <T> type of value
+     * @param publisher source of the values
+     * @param initial value until the first one is received
+     * @param scheduler thread on which the values are set
+     * @return a new State fed by the publisher
+     */
+    public static <T> State<T> fromPublisher(Flow.Publisher<? extends T> publisher, T initial,
+                                             Scheduler scheduler) {
+        State<T> state = new State<>(initial);
+        StateSubscriber<T> subscriber = new StateSubscriber<>(state, scheduler);
+        ListenerManager.registerWeakly(state, subscriber);
+        publisher.subscribe(subscriber);
+        return state;
+    }
+
+    /**
+     * Runs the action as a single transaction: listeners of the states changed
+     * inside it are not called until the outermost batch ends, and then each
+     * changed state notifies exactly once with its final value.
+     *
+     * <p>Computed states depending on several of the changed states are also
+     * recalculated only once. Batches can be nested; only the outermost one
+     * flushes.</p>
+     *
+     * <pre>{@code
+     * State.batch(() -> {
+     *     firstName.set("Jane");
+     *     lastName.set("Smith");
+     * }); // fullName recomputes and notifies once
+     * }</pre>
+     *
+     * @param action code that updates one or more states
+     */
+    public static void batch(Runnable action) {
+        Propagation.batch(action);
+    }
+
+    /**
+     * Makes the subscribers be notified through the scheduler instead of
+     * inside {@link #set}. The value itself still changes right away; sets made
+     * before the scheduler runs are coalesced and only the latest value is
+     * delivered.
+     *
+     * <p>This defers notifications, it does not make the state thread-safe:
+     * {@link #set} must still be called on the owner thread. To update from
+     * worker threads and be notified on the FX thread, use
+     * {@link ConcurrentState#deliverOn}.</p>
+     *
+     * <pre>{@code
+     * State<Double> zoom = State.of(1.0).deliverOn(Scheduler.fx());
+     * canvas.setOnScroll(e -> zoom.set(zoom.get() * factor(e))); // listeners run once per pulse
+     * }</pre>
+     *
+     * @param scheduler scheduler of the notifications, or null to notify synchronously
+     * @return this state, for chaining
+     */
+    public State<T> deliverOn(Scheduler scheduler) {
+        delivery = scheduler != null ? new ScheduledDelivery<>(scheduler, listeners::publish) : null;
+        return this;
+    }
+
+    /**
+     * Returns the scheduler of the notifications.
+     *
+     * @return the scheduler, or null if subscribers are notified synchronously
+     */
+    public Scheduler getScheduler() {
+        ScheduledDelivery<T> current = delivery;
+        return current != null ? current.scheduler() : null;
+    }
+
     /**
      * Returns the current value of this state.
      * 
      * @return current value
      */
     public T get() {
+        Propagation.read(this);
         return value;
     }
 
@@ -66,7 +171,8 @@ public class State<T> implements ReadableState<T> {
      * @return current value
      */
     public T getOrDefault(T defaultValue) {
-        return value == null? defaultValue : value;
+        T current = get();
+        return current == null? defaultValue : current;
     }
 
 
@@ -88,11 +194,14 @@ public class State<T> implements ReadableState<T> {
 
         this.value = newValue;
 
-        //mesmo que um método (notifySubscribers)
-//        listeners.forEach(l -> l.accept(value));
-        for (var listener : List.copyOf(listeners)) {
-            listener.accept(value);
+        ScheduledDelivery<T> scheduled = delivery;
+        if (scheduled != null) {
+            scheduled.offer(newValue);
+            return;
         }
+
+        //mesmo que um método (notifySubscribers)
+        listeners.publish(newValue);
     }
 
     /**
@@ -100,10 +209,11 @@ public class State<T> implements ReadableState<T> {
      * Subscribers are automatically notified whenever the state value changes.
      * 
      * @param listener to be notified of state changes
+     * @return subscription that removes the listener when closed
      */
-    public void subscribe(Consumer<T> listener) {
-        listeners.add(listener);
-        ListenerManager.register(listener);
+    public Subscription subscribe(Consumer<T> listener) {
+        Subscription subscription = listeners.add(listener);
         listener.accept(value);
+        return subscription;
     }
 }
\ No newline at end of file
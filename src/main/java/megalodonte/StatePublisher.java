@@ -0,0 +1,187 @@
+package megalodonte;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flow.Publisher} of the values of a state, returned by
+ * {@link ReadableState#toPublisher}.
+ *
+ * <p>Each subscriber gets its own bounded queue, filled on the thread that
+ * changes the state, and drained on an {@link Executor} as the subscriber
+ * requests values. Filling the queue never waits: the {@link Overflow}
+ * strategy drops a value instead, so a slow subscriber neither blocks
+ * {@code set()} nor makes memory grow. Draining follows the usual
+ * work-in-progress pattern, so {@code onNext} is never called concurrently
+ * for one subscriber.</p>
+ *
+ * <p>A new subscriber first receives the current value, like
+ * {@link ReadableState#subscribe}. Null values are skipped, since
+ * {@code onNext} does not accept them.</p>
+ *
+ * <p>{@link Flow.Subscription#cancel()} may be called from any thread, usually
+ * the executor's. The listener on the state is only removed on the owner
+ * thread, the one that subscribed: right away when cancelling there, otherwise
+ * at the next change of the state, which the cancelled link ignores. Only a
+ * {@link ConcurrentState}, whose listeners are thread-safe, is released from
+ * any thread.</p>
+ *
+ * @param <T> type of the published values
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class StatePublisher<T> implements Flow.Publisher<T> {
+
+    private final ReadableState<T> state;
+    private final Overflow overflow;
+    private final Executor executor;
+
+    StatePublisher(ReadableState<T> state, Overflow overflow, Executor executor) {
+        if (overflow == null || executor == null) {
+            throw new IllegalArgumentException("Overflow strategy and executor cannot be null");
+        }
+        this.state = state;
+        this.overflow = overflow;
+        this.executor = executor;
+    }
+
+    /**
+     * Subscribes to the state on the calling thread, which must be allowed to
+     * subscribe to it (the owner thread, unless it is a {@link ConcurrentState}).
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Link<T> link = new Link<>(subscriber, overflow, executor,
+                state instanceof ConcurrentState ? null : Thread.currentThread());
+        subscriber.onSubscribe(link);
+        link.attach(state.subscribe(link::offer));
+    }
+
+    private static final class Link<T> implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final int capacity;
+        private final boolean dropOldest;
+        private final Executor executor;
+        // Thread dona do estado; null quando a lista de listeners aceita qualquer thread
+        private final Thread owner;
+        private final ArrayDeque<T> queue = new ArrayDeque<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        private volatile Subscription source;
+
+        Link(Flow.Subscriber<? super T> subscriber, Overflow overflow, Executor executor, Thread owner) {
+            this.subscriber = subscriber;
+            this.capacity = overflow.capacity();
+            this.dropOldest = overflow.dropsOldest();
+            this.executor = executor;
+            this.owner = owner;
+        }
+
+        void attach(Subscription subscription) {
+            source = subscription;
+            if (cancelled) {
+                release();
+            }
+        }
+
+        /**
+         * Runs on the thread that changed the state; only takes the queue lock
+         * for the time of one add.
+         */
+        void offer(T value) {
+            if (cancelled) {
+                release(); // cancelado em outra thread: solta o estado aqui, na dona
+                return;
+            }
+            if (value == null) {
+                return;
+            }
+            synchronized (queue) {
+                if (dropOldest) {
+                    if (queue.size() == capacity) {
+                        queue.poll();
+                    }
+                } else if (queue.size() >= capacity || queue.size() >= requested.get()) {
+                    return; // sem demanda: o valor é descartado
+                }
+                queue.add(value);
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested amount must be positive: " + n);
+            } else {
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if (owner == null || owner == Thread.currentThread()) {
+                release();
+            }
+            synchronized (queue) {
+                queue.clear();
+            }
+        }
+
+        /**
+         * Closes the subscription to the state. Only called where closing it is
+         * safe: on the owner thread, or anywhere for a {@link ConcurrentState}.
+         */
+        private void release() {
+            Subscription subscription = source;
+            if (subscription != null) {
+                source = null;
+                subscription.close();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::drainLoop);
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            do {
+                Throwable failure = error;
+                if (failure != null && !cancelled) {
+                    cancel();
+                    subscriber.onError(failure);
+                }
+                while (!cancelled && requested.get() > 0) {
+                    T value;
+                    synchronized (queue) {
+                        value = queue.poll();
+                    }
+                    if (value == null) {
+                        break;
+                    }
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    try {
+                        subscriber.onNext(value);
+                    } catch (RuntimeException e) {
+                        cancel(); // assinante que lança é considerado cancelado
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package megalodonte;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link Flow.Subscriber} that feeds a {@link State}, created by
+ * {@link State#fromPublisher}.
+ *
+ * <p>It requests everything upfront and never queues: each value replaces the
+ * one not delivered yet in a {@link ScheduledDelivery}, so a fast publisher
+ * costs one slot of memory and one scheduled task per scheduler run. Closing
+ * it, directly or through {@link ListenerManager#dispose(Object)} on the
+ * state, cancels the upstream subscription.</p>
+ *
+ * <p>The publisher keeps its subscriber, so the state is held weakly: a state
+ * nobody references any more is collected, and the next value received finds
+ * it gone and cancels the upstream subscription.</p>
+ *
+ * @param <T> type of the received values
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class StateSubscriber<T> implements Flow.Subscriber<T>, Subscription {
+
+    private final WeakReference<State<T>> state;
+    private final ScheduledDelivery<T> delivery;
+    private Flow.Subscription upstream;
+    private boolean closed;
+
+    StateSubscriber(State<T> state, Scheduler scheduler) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("Scheduler cannot be null");
+        }
+        this.state = new WeakReference<>(state);
+        this.delivery = new ScheduledDelivery<>(scheduler, this::deliver);
+    }
+
+    private void deliver(T value) {
+        State<T> target = state.get();
+        if (target != null) {
+            target.set(value);
+        }
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null || closed) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (state.get() == null) {
+            close(); // ninguém mais lê o estado
+            return;
+        }
+        delivery.offer(item);
+    }
+
+    /**
+     * Ends the updates; the state keeps the last value received.
+     */
+    @Override
+    public void onError(Throwable throwable) {
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (upstream != null) {
+            upstream.cancel();
+        }
+    }
+}
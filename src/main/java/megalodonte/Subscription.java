@@ -0,0 +1,35 @@
+package megalodonte;
+
+/**
+ * Handle returned by {@link ReadableState#subscribe} that detaches the listener
+ * from the state it was registered on.
+ *
+ * <p>Closing a subscription is constant time and idempotent: the listener stops
+ * receiving values immediately, even if the state is in the middle of notifying
+ * its subscribers. Because it is an {@link AutoCloseable}, a subscription can be
+ * scoped with try-with-resources or collected and closed when a screen is
+ * disposed.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * State<String> name = State.of("John");
+ *
+ * Subscription subscription = name.subscribe(value -> label.setText(value));
+ * name.set("Jane"); // label updated
+ *
+ * subscription.close();
+ * name.set("Mary"); // listener no longer called
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface Subscription extends AutoCloseable {
+
+    /**
+     * Removes the listener from the state. Calling it more than once has no effect.
+     */
+    @Override
+    void close();
+}
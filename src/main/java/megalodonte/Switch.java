@@ -0,0 +1,180 @@
+package megalodonte;
+
+import javafx.scene.layout.Pane;
+import megalodonte.components.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Multi-way conditional rendering: shows the branch registered for the current
+ * value of a reactive state.
+ *
+ * <p>Each branch is created the first time its key is selected. When the key
+ * changes, the previous branch is only detached and kept, so selecting it again
+ * reattaches the same component instead of rebuilding its subtree; swapping is
+ * a single replacement of the node in the container. Values without a branch
+ * show the {@link #otherwise} branch, or nothing.</p>
+ *
+ * <p>By default every branch ever shown is kept. Use {@link #cache(int, Duration)}
+ * to bound how many hidden branches are kept and for how long.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * State<Tab> tab = State.of(Tab.PRODUCTS);
+ *
+ * Switch<Tab> content = Switch.on(tab)
+ *     .match(Tab.PRODUCTS, ProductsPage::new)
+ *     .match(Tab.ORDERS, OrdersPage::new)
+ *     .otherwise(EmptyPage::new);
+ *
+ * tab.set(Tab.ORDERS);   // creates OrdersPage, ProductsPage is kept
+ * tab.set(Tab.PRODUCTS); // reattaches the same ProductsPage
+ * }</pre>
+ *
+ * @param <K> type of the selector value
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public final class Switch<K> extends Component {
+
+    // Chave interna do ramo otherwise
+    private static final Object OTHERWISE = new Object();
+
+    private final ReadableState<K> selector;
+    private final Map<Object, Supplier<? extends Component>> branches = new HashMap<>();
+    private BranchCache<Object, Component> keptBranches = new BranchCache<>(Integer.MAX_VALUE, null, null);
+    private Object mountedBranch;
+    private Component mountedChild;
+    private final Subscription subscription;
+
+    private Switch(ReadableState<K> selector) {
+        super(new Pane());
+        this.selector = selector;
+        this.subscription = selector.subscribe(this::update);
+    }
+
+    /**
+     * Creates a Switch driven by the given state.
+     *
+     * @param <K> type of the selector value
+     * @param selector state whose value chooses the branch
+     * @return a new Switch without branches
+     */
+    public static <K> Switch<K> on(ReadableState<K> selector) {
+        return new Switch<>(selector);
+    }
+
+    /**
+     * Registers the branch shown while the selector equals the key.
+     *
+     * @param key selector value of the branch
+     * @param factory creates the branch the first time it is shown
+     * @return this Switch, for chaining
+     */
+    public Switch<K> match(K key, Supplier<? extends Component> factory) {
+        return register(key, factory);
+    }
+
+    /**
+     * Registers the branch shown for values without a matching branch.
+     *
+     * @param factory creates the branch the first time it is shown
+     * @return this Switch, for chaining
+     */
+    public Switch<K> otherwise(Supplier<? extends Component> factory) {
+        return register(OTHERWISE, factory);
+    }
+
+    /**
+     * Bounds the hidden branches kept: at most {@code maxCached}, the least
+     * recently hidden being dropped first, and none hidden for longer than
+     * {@code ttl}, dropped on the FX thread. A dropped branch is created again
+     * when selected.
+     *
+     * @param maxCached maximum number of hidden branches kept
+     * @param ttl how long a hidden branch is kept, or null for no limit
+     * @return this Switch, for chaining
+     * @throws IllegalArgumentException if maxCached is negative or ttl is not positive
+     */
+    public Switch<K> cache(int maxCached, Duration ttl) {
+        return cache(maxCached, ttl, TimeScheduler.fx());
+    }
+
+    /**
+     * Bounds the hidden branches kept as {@link #cache(int, Duration)} does,
+     * timing the time-to-live with the given scheduler.
+     *
+     * @param maxCached maximum number of hidden branches kept
+     * @param ttl how long a hidden branch is kept, or null for no limit
+     * @param scheduler clock and timer that drop expired branches
+     * @return this Switch, for chaining
+     * @throws IllegalArgumentException if maxCached is negative or ttl is not positive
+     */
+    public Switch<K> cache(int maxCached, Duration ttl, TimeScheduler scheduler) {
+        keptBranches = new BranchCache<>(maxCached, ttl, scheduler);
+        return this;
+    }
+
+    /**
+     * Drops every hidden branch kept, so they are created again when selected.
+     */
+    public void evictCached() {
+        keptBranches.clear();
+    }
+
+    /**
+     * Stops following the selector. The current branch stays shown.
+     */
+    public void dispose() {
+        subscription.close();
+        keptBranches.clear();
+    }
+
+    /**
+     * Returns the state whose value chooses the branch.
+     *
+     * @return the selector state
+     */
+    public ReadableState<K> getSelector() {
+        return selector;
+    }
+
+    private Switch<K> register(Object key, Supplier<? extends Component> factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("Branch factory cannot be null");
+        }
+        branches.put(key, factory);
+        // Ramos registrados depois da assinatura: reavalia o valor atual
+        update(selector.get());
+        return this;
+    }
+
+    private void update(K key) {
+        Object branch = branches.containsKey(key) ? key : OTHERWISE;
+        if (mountedChild != null && Objects.equals(branch, mountedBranch)) {
+            return;
+        }
+
+        Pane pane = (Pane) node;
+        Supplier<? extends Component> factory = branches.get(branch);
+        // Retira o novo ramo antes de guardar o antigo, para não ser despejado por ele
+        Component next = factory != null ? keptBranches.take(branch) : null;
+        if (mountedChild != null) {
+            keptBranches.put(mountedBranch, mountedChild);
+            mountedChild = null;
+            mountedBranch = null;
+        }
+
+        if (factory == null) {
+            pane.getChildren().clear();
+            return;
+        }
+        mountedChild = next != null ? next : factory.get();
+        mountedBranch = branch;
+        pane.getChildren().setAll(mountedChild.getNode());
+    }
+}
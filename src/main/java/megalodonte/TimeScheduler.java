@@ -0,0 +1,64 @@
+package megalodonte;
+
+import java.time.Duration;
+
+/**
+ * Clock and timer used by the time-based operators
+ * {@link ReadableState#debounce debounce}, {@link ReadableState#throttle throttle}
+ * and {@link ReadableState#sample sample}.
+ *
+ * <p>{@link #fx()} waits on a shared daemon timer thread and runs the tasks on
+ * the JavaFX application thread. Tests use a {@link VirtualTimeScheduler},
+ * whose clock only moves when told to, so no test has to sleep.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * VirtualTimeScheduler time = new VirtualTimeScheduler();
+ * ReadableState<String> query = search.debounce(Duration.ofMillis(300), time);
+ *
+ * search.set("meg");
+ * time.advanceBy(Duration.ofMillis(300)); // query is now "meg"
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public interface TimeScheduler {
+
+    /**
+     * Returns the current time of this scheduler's clock.
+     *
+     * @return time in nanoseconds, only meaningful relative to other readings
+     */
+    long nanoTime();
+
+    /**
+     * Runs the task once after the delay.
+     *
+     * @param delay time to wait
+     * @param task work to run
+     * @return subscription that cancels the task if it has not run yet
+     */
+    Subscription schedule(Duration delay, Runnable task);
+
+    /**
+     * Returns the time scheduler that runs its tasks on the JavaFX application
+     * thread.
+     *
+     * @return the shared FX time scheduler
+     */
+    static TimeScheduler fx() {
+        return TimerScheduler.FX;
+    }
+
+    /**
+     * Returns a time scheduler that waits on the shared timer thread and then
+     * hands the tasks to the given scheduler.
+     *
+     * @param scheduler runs the tasks once they are due
+     * @return a time scheduler delivering through the scheduler
+     */
+    static TimeScheduler on(Scheduler scheduler) {
+        return new TimerScheduler(scheduler);
+    }
+}
@@ -0,0 +1,185 @@
+package megalodonte;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the time-based operators of {@link ReadableState}.
+ *
+ * <p>The operator holds its value in an internal {@link State}. Every change
+ * of the source only updates a field and, at most, swaps a timer; the value is
+ * set when the timer fires, so a burst of changes becomes a single downstream
+ * notification. Timers run on the {@link TimeScheduler}, which should deliver
+ * on the thread that owns the source.</p>
+ *
+ * <p>Like {@link FusedState}, the operator subscribes to its source only while
+ * it has subscribers itself. The first subscription takes the source's current
+ * value; when the last one is closed, the source subscription is closed and
+ * any pending timer is cancelled, so an operator nobody observes neither keeps
+ * a listener on the source nor wakes up. Without subscribers, {@link #get()}
+ * returns the source's value.</p>
+ *
+ * @param <T> type of the value
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class TimedState<T> implements ReadableState<T> {
+
+    enum Mode {
+        /** Emits the last value once the source stays quiet for the period. */
+        DEBOUNCE,
+        /** Emits the first value at once, then at most one per period (the last). */
+        THROTTLE,
+        /** Emits the last value, if it changed, at every tick of the period. */
+        SAMPLE
+    }
+
+    private final ReadableState<T> source;
+    private final Mode mode;
+    private final Duration period;
+    private final TimeScheduler scheduler;
+    private final State<T> output = new State<>(null);
+    private Subscription upstream;
+    private int subscribers;
+    private long origin;
+    private Subscription timer;
+    private T latest;
+    private boolean changed;
+    private boolean wiring;
+
+    private TimedState(ReadableState<T> source, Mode mode, Duration period, TimeScheduler scheduler) {
+        if (period == null || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        if (scheduler == null) {
+            throw new IllegalArgumentException("Time scheduler cannot be null");
+        }
+        this.source = source;
+        this.mode = mode;
+        this.period = period;
+        this.scheduler = scheduler;
+    }
+
+    static <T> ReadableState<T> create(ReadableState<T> source, Mode mode, Duration period,
+                                       TimeScheduler scheduler) {
+        return new TimedState<>(source, mode, period, scheduler);
+    }
+
+    @Override
+    public T get() {
+        Propagation.read(this);
+        // Quem rastreia depende deste operador, não da fonte nem do estado interno
+        return Propagation.untracked(upstream != null ? output::get : source::get);
+    }
+
+    @Override
+    public boolean isNull() {
+        return get() == null;
+    }
+
+    /**
+     * Subscribes to the operator, attaching it to its source if this is the
+     * first subscriber.
+     */
+    @Override
+    public Subscription subscribe(Consumer<T> listener) {
+        if (upstream == null) {
+            attach();
+        }
+        subscribers++;
+        Subscription subscription = output.subscribe(listener);
+        boolean[] closed = {false};
+        return () -> {
+            if (closed[0]) {
+                return;
+            }
+            closed[0] = true;
+            subscription.close();
+            if (--subscribers == 0) {
+                detach();
+            }
+        };
+    }
+
+    boolean isAttached() {
+        return upstream != null;
+    }
+
+    private void attach() {
+        origin = scheduler.nanoTime();
+        wiring = true;
+        try {
+            upstream = source.subscribe(this::onChange);
+        } finally {
+            wiring = false;
+        }
+    }
+
+    private void detach() {
+        // Último observador saiu: solta a fonte e cancela o timer pendente
+        upstream.close();
+        upstream = null;
+        if (timer != null) {
+            timer.close();
+            timer = null;
+        }
+        latest = null;
+        changed = false;
+    }
+
+    private void onChange(T value) {
+        if (wiring) {
+            output.set(value); // valor atual da fonte, entregue pelo subscribe
+            return;
+        }
+        switch (mode) {
+            case DEBOUNCE:
+                latest = value;
+                changed = true;
+                if (timer != null) {
+                    timer.close();
+                }
+                timer = scheduler.schedule(period, this::emit);
+                break;
+            case THROTTLE:
+                if (timer == null) {
+                    output.set(value);
+                    timer = scheduler.schedule(period, this::endWindow);
+                } else {
+                    latest = value;
+                    changed = true;
+                }
+                break;
+            default:
+                latest = value;
+                changed = true;
+                if (timer == null) {
+                    // Alinha ao próximo tique do período, contado da criação
+                    long elapsed = (scheduler.nanoTime() - origin) % period.toNanos();
+                    timer = scheduler.schedule(period.minusNanos(elapsed), this::emit);
+                }
+        }
+    }
+
+    private void emit() {
+        timer = null;
+        if (changed) {
+            changed = false;
+            T value = latest;
+            latest = null;
+            output.set(value);
+        }
+    }
+
+    /**
+     * End of a throttle window: the last value seen in it is emitted and opens
+     * a new window, otherwise the next change passes at once.
+     */
+    private void endWindow() {
+        timer = null;
+        if (changed) {
+            emit();
+            timer = scheduler.schedule(period, this::endWindow);
+        }
+    }
+}
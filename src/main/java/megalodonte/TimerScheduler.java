@@ -0,0 +1,59 @@
+package megalodonte;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link TimeScheduler} on the system clock: a single daemon thread waits for
+ * the tasks and hands them to a {@link Scheduler} when due.
+ *
+ * <p>A task cancelled after it was handed over but before it ran is still
+ * skipped, since the check happens on the scheduler's thread.</p>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+final class TimerScheduler implements TimeScheduler {
+
+    static final TimerScheduler FX = new TimerScheduler(Scheduler.fx());
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "megalodonte-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Scheduler scheduler;
+
+    TimerScheduler(Scheduler scheduler) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("Scheduler cannot be null");
+        }
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public Subscription schedule(Duration delay, Runnable task) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Runnable guarded = () -> {
+            if (!cancelled.get()) {
+                task.run();
+            }
+        };
+        ScheduledFuture<?> timer = TIMER.schedule(() -> scheduler.schedule(guarded),
+                delay.toNanos(), TimeUnit.NANOSECONDS);
+        return () -> {
+            cancelled.set(true);
+            timer.cancel(false);
+        };
+    }
+}
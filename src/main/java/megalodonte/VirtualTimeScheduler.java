@@ -0,0 +1,87 @@
+package megalodonte;
+
+import java.time.Duration;
+import java.util.PriorityQueue;
+
+/**
+ * {@link TimeScheduler} with a virtual clock, for tests of time-based code.
+ *
+ * <p>Time starts at zero and only moves through {@link #advanceBy}, which runs
+ * the tasks that become due, in order of due time (then of scheduling), on the
+ * calling thread. The clock reads each task's due time while it runs, so tasks
+ * scheduled from a task are also run if they fall inside the advance.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * VirtualTimeScheduler time = new VirtualTimeScheduler();
+ * ReadableState<Integer> throttled = clicks.throttle(Duration.ofSeconds(1), time);
+ *
+ * clicks.set(1);                     // delivered at once
+ * clicks.set(2);
+ * clicks.set(3);
+ * time.advanceBy(Duration.ofSeconds(1)); // 3 delivered at the end of the window
+ * }</pre>
+ *
+ * @author Eliezer
+ * @since 1.0.0
+ */
+public final class VirtualTimeScheduler implements TimeScheduler {
+
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>((a, b) ->
+            a.due != b.due ? Long.compare(a.due, b.due) : Long.compare(a.sequence, b.sequence));
+    private long now;
+    private long sequence;
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public Subscription schedule(Duration delay, Runnable task) {
+        Task scheduled = new Task(now + Math.max(0, delay.toNanos()), sequence++, task);
+        tasks.add(scheduled);
+        return () -> tasks.remove(scheduled);
+    }
+
+    /**
+     * Moves the clock forward, running every task due until the new time.
+     *
+     * @param duration how much to advance the clock
+     * @throws IllegalArgumentException if duration is negative
+     */
+    public void advanceBy(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Cannot go back in time: " + duration);
+        }
+        long target = now + duration.toNanos();
+        Task next;
+        while ((next = tasks.peek()) != null && next.due <= target) {
+            tasks.poll();
+            now = next.due;
+            next.action.run();
+        }
+        now = target;
+    }
+
+    /**
+     * Returns how many tasks are waiting to become due.
+     *
+     * @return number of scheduled tasks
+     */
+    public int getPendingCount() {
+        return tasks.size();
+    }
+
+    private static final class Task {
+        final long due;
+        final long sequence;
+        final Runnable action;
+
+        Task(long due, long sequence, Runnable action) {
+            this.due = due;
+            this.sequence = sequence;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncComputedStateTest {
+
+    /** Executor manual: as tarefas só rodam quando o teste mandar. */
+    private final List<Runnable> submitted = new ArrayList<>();
+    private final Executor executor = submitted::add;
+    /** Scheduler manual, no papel da thread do FX. */
+    private final List<Runnable> delivered = new ArrayList<>();
+    private final Scheduler scheduler = delivered::add;
+
+    private void deliver() {
+        List<Runnable> tasks = new ArrayList<>(delivered);
+        delivered.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    @DisplayName("the result should be delivered through the scheduler")
+    void result_shouldBeDeliveredThroughScheduler() {
+        State<Integer> quantity = State.of(2);
+        AsyncComputedState<Integer> total = AsyncComputedState.of(quantity, q -> q * 10, executor, scheduler);
+        List<Integer> values = new ArrayList<>();
+        total.subscribe(values::add);
+
+        assertTrue(total.isPending());
+        submitted.get(0).run();
+        assertTrue(total.isPending()); // calculado, mas ainda não entregue
+
+        deliver();
+
+        assertEquals(20, total.get());
+        assertEquals(AsyncComputedState.Status.READY, total.status().get());
+        assertEquals(Arrays.asList(null, 20), values);
+    }
+
+    @Test
+    @DisplayName("a change mid-flight should cancel the older computation and discard its result")
+    void changeMidFlight_shouldOnlyPublishLatest() {
+        State<String> query = State.of("a");
+        AsyncComputedState<String> result = AsyncComputedState.of(query, String::toUpperCase, executor, scheduler);
+
+        query.set("ab");
+        query.set("abc");
+
+        assertEquals(3, submitted.size());
+        assertTrue(((FutureTask<?>) submitted.get(0)).isCancelled());
+        assertTrue(((FutureTask<?>) submitted.get(1)).isCancelled());
+        submitted.forEach(Runnable::run);
+        deliver();
+
+        assertEquals("ABC", result.get());
+        assertFalse(result.isPending());
+    }
+
+    @Test
+    @DisplayName("a result arriving after a newer change should be ignored")
+    void staleResult_shouldBeIgnored() {
+        State<Integer> input = State.of(1);
+        AsyncComputedState<Integer> doubled = AsyncComputedState.of(input, n -> n * 2, executor, scheduler);
+        submitted.get(0).run(); // terminou antes da mudança, mas ainda não foi entregue
+
+        input.set(5);
+        deliver();
+        assertNull(doubled.get());
+        assertTrue(doubled.isPending());
+
+        submitted.get(1).run();
+        deliver();
+        assertEquals(10, doubled.get());
+    }
+
+    @Test
+    @DisplayName("an exception should be reported as FAILED keeping the last value")
+    void exception_shouldSetFailedStatus() {
+        State<Integer> divisor = State.of(2);
+        AsyncComputedState<Integer> quotient = AsyncComputedState.of(divisor, d -> 10 / d, executor, scheduler);
+        submitted.get(0).run();
+        deliver();
+
+        divisor.set(0);
+        submitted.get(1).run();
+        deliver();
+
+        assertEquals(AsyncComputedState.Status.FAILED, quotient.status().get());
+        assertInstanceOf(ArithmeticException.class, quotient.getError());
+        assertEquals(5, quotient.get());
+    }
+
+    @Test
+    @DisplayName("the computation should run off the calling thread")
+    void computation_shouldRunOffCallingThread() throws InterruptedException {
+        Thread caller = Thread.currentThread();
+        LinkedBlockingQueue<Runnable> mailbox = new LinkedBlockingQueue<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        State<Integer> input = State.of(1);
+
+        AsyncComputedState<Boolean> offThread = AsyncComputedState.of(
+                () -> Thread.currentThread() != caller, ForkJoinPool.commonPool(),
+                mailbox::add, input);
+        offThread.status().subscribe(status -> {
+            if (status != AsyncComputedState.Status.PENDING) {
+                finished.countDown();
+            }
+        });
+
+        Runnable delivery = mailbox.poll(10, TimeUnit.SECONDS);
+        assertNotNull(delivery);
+        delivery.run();
+        assertTrue(finished.await(1, TimeUnit.SECONDS));
+        assertTrue(offThread.get());
+    }
+}
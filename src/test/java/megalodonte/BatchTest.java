@@ -0,0 +1,88 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchTest {
+
+    @Test
+    @DisplayName("batch() should notify each changed state once with its final value")
+    void batchShouldNotifyOnceWithFinalValue() {
+        State<Integer> state = State.of(0);
+        List<Integer> received = new ArrayList<>();
+        state.subscribe(received::add);
+
+        State.batch(() -> {
+            state.set(1);
+            state.set(2);
+            state.set(3);
+            assertEquals(List.of(0), received);
+            assertEquals(3, state.get());
+        });
+
+        assertEquals(List.of(0, 3), received);
+    }
+
+    @Test
+    @DisplayName("batch() should recompute a computed state once for several dependencies")
+    void batchShouldRecomputeComputedOnce() {
+        State<String> first = State.of("John");
+        State<String> last = State.of("Doe");
+        AtomicInteger computations = new AtomicInteger();
+        ComputedState<String> full = ComputedState.of(() -> {
+            computations.incrementAndGet();
+            return first.get() + " " + last.get();
+        }, first, last);
+        List<String> received = new ArrayList<>();
+        full.subscribe(received::add);
+        computations.set(0);
+
+        State.batch(() -> {
+            first.set("Jane");
+            last.set("Smith");
+        });
+
+        assertEquals(1, computations.get());
+        assertEquals(List.of("John Doe", "Jane Smith"), received);
+    }
+
+    @Test
+    @DisplayName("nested batches should only flush when the outermost one ends")
+    void nestedBatchesShouldFlushAtOutermost() {
+        ListState<String> list = ListState.of(List.of());
+        List<Integer> sizes = new ArrayList<>();
+        list.subscribe(items -> sizes.add(items.size()));
+
+        State.batch(() -> {
+            list.add("a");
+            State.batch(() -> list.add("b"));
+            assertEquals(List.of(0), sizes);
+            list.add("c");
+        });
+
+        assertEquals(List.of(0, 3), sizes);
+    }
+
+    @Test
+    @DisplayName("batch() should flush even when the action throws")
+    void batchShouldFlushWhenActionThrows() {
+        State<String> state = State.of("a");
+        List<String> received = new ArrayList<>();
+        state.subscribe(received::add);
+
+        assertThrows(IllegalStateException.class, () -> State.batch(() -> {
+            state.set("b");
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(List.of("a", "b"), received);
+        state.set("c");
+        assertEquals(List.of("a", "b", "c"), received);
+    }
+}
@@ -0,0 +1,141 @@
+package megalodonte;
+
+import javafx.collections.ListChangeListener;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChildrenBindingTest {
+
+    private static Region row(String item) {
+        Region region = new Region();
+        region.setId(item);
+        return region;
+    }
+
+    private static List<String> items(int count) {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add("item" + i);
+        }
+        return items;
+    }
+
+    private static List<String> ids(Pane pane) {
+        List<String> ids = new ArrayList<>();
+        for (Node child : pane.getChildren()) {
+            ids.add(child.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("each change should reach the children as a single event")
+    void eachChange_shouldFireSingleEvent() {
+        ListState<String> state = ListState.of(items(1_000));
+        ForEachState<String, Region> forEach = ForEachState.of(state, item -> item, ChildrenBindingTest::row);
+        Pane pane = new Pane();
+        ChildrenBinding.bind(pane, forEach, region -> region);
+        Node second = pane.getChildren().get(1);
+        List<ListChangeListener.Change<? extends Node>> events = new ArrayList<>();
+        pane.getChildren().addListener((ListChangeListener<Node>) events::add);
+
+        state.add(500, "new");
+        state.remove("item0");
+
+        assertEquals(2, events.size());
+        assertSame(second, pane.getChildren().get(0));
+        assertEquals(state.get(), ids(pane));
+    }
+
+    @Test
+    @DisplayName("children added before the binding should keep their place")
+    void existingChildren_shouldKeepTheirPlace() {
+        ListState<String> state = ListState.of(items(3));
+        Pane pane = new Pane(row("title"));
+        ChildrenBinding.bind(pane, ForEachState.of(state, ChildrenBindingTest::row), region -> region);
+
+        state.move(2, 0);
+        state.set(1, "changed");
+
+        assertEquals(List.of("title", "item2", "changed", "item1"), ids(pane));
+    }
+
+    @Test
+    @DisplayName("keyed reorders should keep the children in sync")
+    void keyedReorders_shouldKeepChildrenInSync() {
+        Random random = new Random(5);
+        State<List<String>> state = State.of(items(40));
+        ForEachState<String, Region> forEach = ForEachState.of(state, item -> item, ChildrenBindingTest::row);
+        Pane pane = new Pane();
+        Subscription binding = ChildrenBinding.bind(pane, forEach, region -> region);
+
+        for (int step = 0; step < 50; step++) {
+            List<String> next = new ArrayList<>(state.get());
+            Collections.shuffle(next, random);
+            next.remove(0);
+            next.add("step" + step);
+            state.set(next);
+
+            assertEquals(next, ids(pane));
+        }
+
+        binding.close();
+        state.set(items(1));
+        assertNotEquals(state.get(), ids(pane));
+    }
+
+    @Test
+    @DisplayName("a reorder should reach the children as a single event")
+    void reorder_shouldFireSingleEvent() {
+        State<List<String>> state = State.of(items(5_000));
+        ForEachState<String, Region> forEach = ForEachState.of(state, item -> item, ChildrenBindingTest::row);
+        Pane pane = new Pane(row("title"));
+        ChildrenBinding.bind(pane, forEach, region -> region);
+        pane.getChildren().add(row("footer"));
+        Node first = pane.getChildren().get(1);
+        int[] events = {0};
+        pane.getChildren().addListener((ListChangeListener<Node>) change -> events[0]++);
+
+        List<String> reversed = new ArrayList<>(state.get());
+        Collections.reverse(reversed);
+        state.set(reversed);
+
+        assertEquals(1, events[0]);
+        assertSame(first, pane.getChildren().get(5_000)); // o nó foi reaproveitado
+        List<String> expected = new ArrayList<>(reversed);
+        expected.add(0, "title");
+        expected.add("footer");
+        assertEquals(expected, ids(pane));
+    }
+
+    @Test
+    @DisplayName("moving a single row should only touch that row")
+    void singleMove_shouldPatchInPlace() {
+        ListState<String> state = ListState.of(items(5_000));
+        Pane pane = new Pane();
+        ChildrenBinding.bind(pane, ForEachState.of(state, ChildrenBindingTest::row), region -> region);
+        Node moved = pane.getChildren().get(10);
+        List<Integer> touched = new ArrayList<>();
+        pane.getChildren().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                touched.add(change.getRemovedSize() + change.getAddedSize());
+            }
+        });
+
+        state.move(10, 4_000);
+
+        assertEquals(List.of(1, 1), touched);
+        assertSame(moved, pane.getChildren().get(4_000));
+        assertEquals(state.get(), ids(pane));
+    }
+}
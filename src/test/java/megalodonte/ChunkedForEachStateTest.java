@@ -0,0 +1,192 @@
+package megalodonte;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedForEachStateTest {
+
+    /** Pulso manual: cada chamada de frame() equivale a um frame. */
+    static final class ManualPulse implements FramePulse {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public Subscription onFrame(Runnable task) {
+            tasks.add(task);
+            return () -> tasks.remove(task);
+        }
+
+        void frame() {
+            new ArrayList<>(tasks).forEach(Runnable::run);
+        }
+    }
+
+    private final ManualPulse pulse = new ManualPulse();
+    private long now;
+    private int created;
+
+    // Cada componente "custa" 1 ms no relógio falso
+    private String render(Integer item) {
+        created++;
+        now += 1_000_000;
+        return "item " + item;
+    }
+
+    private static List<Integer> numbers(int from, int count) {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            numbers.add(i);
+        }
+        return numbers;
+    }
+
+    private ForEachState<Integer, String> chunked(ListState<Integer> state) {
+        ForEachState<Integer, String> forEach = ForEachState.chunked(state, this::render, Duration.ofMillis(4), pulse);
+        forEach.clock = () -> now;
+        return forEach;
+    }
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        created = 0;
+    }
+
+    @Test
+    @DisplayName("a large change should be spread over frames within the budget")
+    void largeChange_shouldBeSpreadOverFrames() {
+        ListState<Integer> state = ListState.of(new ArrayList<>());
+        ForEachState<Integer, String> forEach = chunked(state);
+
+        state.set(numbers(0, 1_000));
+        int firstSlice = created;
+        assertTrue(forEach.isPending());
+        assertTrue(firstSlice < 1_000);
+        assertEquals(firstSlice, forEach.componentCount());
+
+        created = 0;
+        pulse.frame();
+        assertEquals(4, created); // custo medido: 1 ms por componente, orçamento de 4 ms
+        assertEquals("item " + (firstSlice + 3), forEach.getComponents().get(firstSlice + 3));
+
+        while (forEach.isPending()) {
+            pulse.frame();
+        }
+        assertEquals(1_000, forEach.componentCount());
+        assertTrue(pulse.tasks.isEmpty());
+    }
+
+    @Test
+    @DisplayName("a new change mid-flight should replace the unfinished one")
+    void changeMidFlight_shouldCancelPrevious() {
+        ListState<Integer> state = ListState.of(new ArrayList<>());
+        ForEachState<Integer, String> forEach = chunked(state);
+        state.set(numbers(0, 500));
+        pulse.frame();
+
+        state.set(numbers(0, 20));
+        while (forEach.isPending()) {
+            pulse.frame();
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add("item " + i);
+        }
+        assertEquals(expected, forEach.getComponents());
+        assertTrue(pulse.tasks.isEmpty()); // o pulso já foi liberado
+    }
+
+    @Test
+    @DisplayName("a small change should finish without waiting for a frame")
+    void smallChange_shouldFinishImmediately() {
+        ListState<Integer> state = ListState.of(numbers(0, 5_000));
+        ForEachState<Integer, String> forEach = ForEachState.chunked(state, Integer::intValue, this::render,
+                Duration.ofMillis(4), pulse);
+        forEach.clock = () -> now;
+        while (forEach.isPending()) {
+            pulse.frame();
+        }
+        created = 0;
+
+        state.add(2_500, -1);
+
+        assertFalse(forEach.isPending());
+        assertEquals(1, created);
+        assertEquals("item -1", forEach.getComponents().get(2_500));
+    }
+
+    @Test
+    @DisplayName("a large keyed load should only do the work of each slice on every frame")
+    void largeKeyedLoad_shouldWorkPerSlice() {
+        ListState<Integer> state = ListState.of(new ArrayList<>());
+        int[] keyCalls = {0};
+        ForEachState<Integer, String> forEach = ForEachState.chunked(state, item -> {
+            keyCalls[0]++;
+            return item;
+        }, this::render, Duration.ofMillis(4), pulse);
+        forEach.clock = () -> now;
+
+        state.set(numbers(0, 20_000));
+        int frames = 0;
+        while (forEach.isPending()) {
+            keyCalls[0] = 0;
+            created = 0;
+            pulse.frame();
+            frames++;
+            assertEquals(0, keyCalls[0]); // as chaves foram extraídas uma vez, na mudança
+            assertTrue(created <= 4);
+        }
+
+        // 1 ms por componente e 4 ms por frame: cerca de 5.000 frames, nenhum desperdiçado
+        assertTrue(frames <= 20_000 / 4, "frames: " + frames);
+        assertEquals(20_000, forEach.componentCount());
+        assertEquals("item 19999", forEach.getComponentsView().get(19_999));
+    }
+
+    @Test
+    @DisplayName("keyed slices should publish changes that rebuild the components")
+    void keyedSlices_shouldPublishConsistentChanges() {
+        ListState<Integer> state = ListState.of(numbers(0, 300));
+        ForEachState<Integer, String> forEach = ForEachState.chunked(state, item -> item % 1_000, this::render,
+                Duration.ofMillis(4), pulse);
+        forEach.clock = () -> now;
+        List<String> mirror = new ArrayList<>();
+        forEach.subscribeChanges(change -> change.applyTo(mirror));
+        Random random = new Random(3);
+
+        for (int round = 0; round < 20; round++) {
+            // Embaralha, remove alguns, acrescenta novos e troca itens mantendo a chave
+            List<Integer> next = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                if (random.nextInt(3) == 0) {
+                    next.add(random.nextBoolean() ? i : i + 1_000);
+                }
+            }
+            Collections.shuffle(next, random);
+            state.set(next);
+            for (int frame = random.nextInt(5); frame > 0 && forEach.isPending(); frame--) {
+                pulse.frame();
+                assertEquals(forEach.getComponents(), mirror);
+            }
+        }
+        while (forEach.isPending()) {
+            pulse.frame();
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (Integer item : state.get()) {
+            expected.add("item " + item);
+        }
+        assertEquals(expected, forEach.getComponents());
+        assertEquals(expected, mirror);
+    }
+}
@@ -0,0 +1,196 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComputedStateTest {
+
+    @Test
+    @DisplayName("of() should compute the initial value and follow dependencies")
+    void ofShouldComputeAndFollowDependencies() {
+        State<String> first = State.of("John");
+        State<String> last = State.of("Doe");
+        ComputedState<String> full = ComputedState.of(() -> first.get() + " " + last.get(), first, last);
+
+        assertEquals("John Doe", full.get());
+
+        first.set("Jane");
+        assertEquals("Jane Doe", full.get());
+    }
+
+    @Test
+    @DisplayName("diamond dependencies should recompute once without glitches")
+    void diamondShouldRecomputeOnceWithoutGlitches() {
+        State<Integer> root = State.of(1);
+        ComputedState<Integer> doubled = ComputedState.of(() -> root.get() * 2, root);
+        ComputedState<Integer> tripled = ComputedState.of(() -> root.get() * 3, root);
+        AtomicInteger computations = new AtomicInteger();
+        ComputedState<String> sum = ComputedState.of(() -> {
+            computations.incrementAndGet();
+            return doubled.get() + "+" + tripled.get();
+        }, doubled, tripled);
+        List<String> received = new ArrayList<>();
+        sum.subscribe(received::add);
+        computations.set(0);
+
+        root.set(2);
+
+        assertEquals(1, computations.get());
+        assertEquals(List.of("2+3", "4+6"), received);
+    }
+
+    @Test
+    @DisplayName("computed depending on a root and on a computed of that root should not glitch")
+    void mixedHeightsShouldNotGlitch() {
+        State<Integer> root = State.of(1);
+        ComputedState<Integer> plusOne = ComputedState.of(() -> root.get() + 1, root);
+        List<String> received = new ArrayList<>();
+        ComputedState<String> pair = ComputedState.of(() -> root.get() + "," + plusOne.get(), root, plusOne);
+        pair.subscribe(received::add);
+
+        root.set(5);
+
+        assertEquals(List.of("1,2", "5,6"), received);
+    }
+
+    @Test
+    @DisplayName("computed should not notify when the recomputed value is equal")
+    void shouldNotNotifyWhenValueIsEqual() {
+        State<Integer> number = State.of(2);
+        ComputedState<Boolean> even = ComputedState.of(() -> number.get() % 2 == 0, number);
+        List<Boolean> received = new ArrayList<>();
+        even.subscribe(received::add);
+
+        number.set(4);
+        number.set(5);
+
+        assertEquals(List.of(true, false), received);
+    }
+
+    @Test
+    @DisplayName("lazy() should only compute when read")
+    void lazyShouldOnlyComputeWhenRead() {
+        State<Integer> number = State.of(1);
+        AtomicInteger computations = new AtomicInteger();
+        ComputedState<Integer> squared = ComputedState.lazy(() -> {
+            computations.incrementAndGet();
+            return number.get() * number.get();
+        }, number);
+
+        assertEquals(0, computations.get());
+
+        number.set(2);
+        number.set(3);
+        assertEquals(0, computations.get());
+        assertTrue(squared.isStale());
+
+        assertEquals(9, squared.get());
+        assertEquals(9, squared.get());
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    @DisplayName("lazy() should push changes once it has subscribers")
+    void lazyShouldPushOnceSubscribed() {
+        State<Integer> number = State.of(1);
+        ComputedState<Integer> squared = ComputedState.lazy(() -> number.get() * number.get(), number);
+        List<Integer> received = new ArrayList<>();
+
+        number.set(2);
+        Subscription subscription = squared.subscribe(received::add);
+        number.set(3);
+        subscription.close();
+        number.set(4);
+
+        assertEquals(List.of(4, 9), received);
+        assertTrue(squared.isStale());
+        assertEquals(16, squared.get());
+    }
+
+    @Test
+    @DisplayName("of() without dependencies should track the states read")
+    void ofWithoutDependenciesShouldTrackReads() {
+        State<String> first = State.of("John");
+        State<String> last = State.of("Doe");
+        ComputedState<String> full = ComputedState.of(() -> first.get() + " " + last.get());
+
+        assertEquals(2, full.getDependencyCount());
+
+        last.set("Smith");
+        assertEquals("John Smith", full.get());
+    }
+
+    @Test
+    @DisplayName("tracking should drop dependencies of branches no longer taken")
+    void trackingShouldDropInactiveBranches() {
+        State<Boolean> useNickname = State.of(true);
+        State<String> nickname = State.of("JJ");
+        State<String> name = State.of("John");
+        AtomicInteger computations = new AtomicInteger();
+        ComputedState<String> display = ComputedState.of(() -> {
+            computations.incrementAndGet();
+            return useNickname.get() ? nickname.get() : name.get();
+        });
+
+        name.set("Jack");
+        assertEquals(1, computations.get());
+
+        useNickname.set(false);
+        assertEquals("Jack", display.get());
+        assertEquals(2, computations.get());
+
+        nickname.set("Jay");
+        assertEquals(2, computations.get());
+        assertEquals(2, display.getDependencyCount());
+    }
+
+    @Test
+    @DisplayName("tracked computed states should be ordered by height")
+    void trackedComputedShouldBeGlitchFree() {
+        State<Integer> root = State.of(1);
+        ComputedState<Integer> doubled = ComputedState.of(() -> root.get() * 2);
+        List<String> received = new ArrayList<>();
+        ComputedState<String> both = ComputedState.of(() -> root.get() + ":" + doubled.get());
+        both.subscribe(received::add);
+
+        root.set(3);
+
+        assertEquals(List.of("1:2", "3:6"), received);
+    }
+
+    @Test
+    @DisplayName("a dependency that rises in height should raise its dependents")
+    void risingDependencyShouldRaiseDependents() {
+        State<Boolean> flag = State.of(false);
+        State<Integer> source = State.of(1);
+        ComputedState<Integer> first = ComputedState.of(() -> source.get());
+        ComputedState<Integer> second = ComputedState.of(() -> flag.get() ? first.get() - 1 : 0);
+        ComputedState<String> both = ComputedState.of(() -> second.get() + "/" + source.get());
+        List<String> received = new ArrayList<>();
+        both.subscribe(received::add);
+
+        flag.set(true); // second passa a ler first e sobe de altura
+        source.set(5);
+
+        assertEquals(List.of("0/1", "4/5"), received);
+    }
+
+    @Test
+    @DisplayName("subscribing to a dependency should not leak reads into an outer tracking context")
+    void dependencySubscriptionShouldNotLeakReads() {
+        State<Integer> hidden = State.of(1);
+        State<Integer> visible = State.of(2);
+        ComputedState<Integer> inner = ComputedState.lazy(() -> hidden.get() * 10);
+        ComputedState<Integer> middle = ComputedState.lazy(() -> inner.get() + 1);
+        ComputedState<Integer> outer = ComputedState.of(() -> visible.get() + middle.get());
+
+        assertEquals(13, outer.get());
+        assertEquals(2, outer.getDependencyCount()); // visible e middle, nunca inner
+    }
+}
@@ -0,0 +1,90 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentStateTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    @DisplayName("concurrent updateAndGet should not lose updates")
+    void updateAndGet_shouldNotLoseUpdates() throws Exception {
+        ConcurrentState<Integer> counter = ConcurrentState.of(0);
+        AtomicInteger notifications = new AtomicInteger();
+        counter.subscribe(value -> notifications.incrementAndGet());
+
+        runOnThreads(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                counter.updateAndGet(n -> n + 1);
+            }
+        });
+
+        assertEquals(THREADS * 10_000, counter.get());
+        assertEquals(THREADS * 10_000 + 1, notifications.get());
+    }
+
+    @Test
+    @DisplayName("subscribing and closing while other threads set should never fail")
+    void subscribeWhileSetting_shouldNotThrow() throws Exception {
+        ConcurrentState<Integer> price = ConcurrentState.of(0);
+
+        runOnThreads(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                Subscription subscription = price.subscribe(value -> { });
+                price.set(i);
+                subscription.close();
+            }
+        });
+
+        assertEquals(0, price.listenerCount());
+    }
+
+    @Test
+    @DisplayName("compareAndSet should only set the expected value")
+    void compareAndSet_shouldCheckCurrentValue() {
+        String initial = "a";
+        ConcurrentState<String> state = ConcurrentState.of(initial);
+        List<String> values = new ArrayList<>();
+        Subscription subscription = state.subscribe(values::add);
+
+        assertTrue(state.compareAndSet(initial, "b"));
+        assertFalse(state.compareAndSet(initial, "c"));
+        state.set("b");
+        subscription.close();
+        subscription.close();
+        state.set("d");
+
+        assertEquals(List.of("a", "b"), values);
+        assertEquals("d", state.get());
+    }
+
+    private static void runOnThreads(Runnable work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                work.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+}
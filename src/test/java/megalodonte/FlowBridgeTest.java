@@ -0,0 +1,199 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowBridgeTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    /** Assinante que só pede quando o teste mandar. */
+    static class Recorder<T> implements Flow.Subscriber<T> {
+        final List<T> received = new CopyOnWriteArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private static <T> Recorder<T> subscribe(ReadableState<T> state, Overflow overflow) {
+        Recorder<T> recorder = new Recorder<>();
+        state.toPublisher(overflow, DIRECT).subscribe(recorder);
+        return recorder;
+    }
+
+    @Test
+    @DisplayName("latest should deliver only the newest value on request")
+    void latest_shouldKeepNewestValue() {
+        State<Integer> state = State.of(0);
+        Recorder<Integer> recorder = subscribe(state, Overflow.latest());
+
+        for (int i = 1; i <= 100; i++) {
+            state.set(i);
+        }
+        assertTrue(recorder.received.isEmpty());
+
+        recorder.subscription.request(1);
+        recorder.subscription.request(1);
+        state.set(101);
+
+        assertEquals(List.of(100, 101), recorder.received);
+    }
+
+    @Test
+    @DisplayName("buffer should keep the last values up to its capacity")
+    void buffer_shouldDropOldest() {
+        State<Integer> state = State.of(0);
+        Recorder<Integer> recorder = subscribe(state, Overflow.buffer(3));
+
+        for (int i = 1; i <= 10; i++) {
+            state.set(i);
+        }
+        recorder.subscription.request(10);
+
+        assertEquals(List.of(8, 9, 10), recorder.received);
+    }
+
+    @Test
+    @DisplayName("drop should discard values arriving without demand")
+    void drop_shouldDiscardWithoutDemand() {
+        State<Integer> state = State.of(0);
+        Recorder<Integer> recorder = subscribe(state, Overflow.drop());
+        recorder.subscription.request(1);
+        state.set(1);
+        recorder.subscription.request(1);
+        state.set(2);
+        state.set(3);
+        recorder.subscription.request(1);
+        state.set(4);
+
+        assertEquals(List.of(1, 2, 4), recorder.received);
+
+        recorder.subscription.cancel();
+        recorder.subscription.request(1);
+        state.set(5);
+        assertEquals(List.of(1, 2, 4), recorder.received);
+    }
+
+    @Test
+    @DisplayName("a blocked subscriber should neither block set nor grow the queue")
+    void blockedSubscriber_shouldNotBlockSet() throws InterruptedException {
+        State<Integer> state = State.of(0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        state.toPublisher(Overflow.buffer(16)).subscribe(new Recorder<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                received.add(item);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (item == 100_000) {
+                    done.countDown();
+                }
+            }
+        });
+
+        for (int i = 1; i <= 100_000; i++) {
+            state.set(i); // o assinante está parado: nada aqui pode esperar por ele
+        }
+        release.countDown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(received.size() <= 2 + 16, "received " + received.size());
+    }
+
+    @Test
+    @DisplayName("fromPublisher should coalesce values and cancel on dispose")
+    void fromPublisher_shouldFollowPublisher() {
+        List<Runnable> scheduled = new ArrayList<>();
+        SubmissionPublisher<String> publisher = new SubmissionPublisher<>(DIRECT, 4);
+        State<String> state = State.fromPublisher(publisher, "none", scheduled::add);
+
+        publisher.submit("a");
+        publisher.submit("b");
+        publisher.submit("c");
+        assertEquals("none", state.get());
+        assertEquals(1, scheduled.size());
+
+        scheduled.get(0).run();
+        assertEquals("c", state.get());
+
+        ListenerManager.dispose(state);
+        assertEquals(0, publisher.getNumberOfSubscribers());
+        publisher.close();
+    }
+
+    @Test
+    @DisplayName("an unreferenced fromPublisher state should be collected and cancel upstream")
+    void fromPublisher_shouldReleaseCollectedState() throws InterruptedException {
+        SubmissionPublisher<String> publisher = new SubmissionPublisher<>(DIRECT, 4);
+        WeakReference<State<String>> state = new WeakReference<>(State.fromPublisher(publisher, "none", Runnable::run));
+
+        for (int i = 0; i < 50 && state.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(state.get());
+
+        publisher.submit("a");
+        assertEquals(0, publisher.getNumberOfSubscribers());
+        publisher.close();
+    }
+
+    @Test
+    @DisplayName("cancelling off the owner thread should release the state on its next change")
+    void cancelOffOwnerThread_shouldReleaseOnOwnerThread() throws InterruptedException {
+        State<Integer> state = State.of(0);
+        int before = ListenerManager.getListenerCount();
+        Recorder<Integer> recorder = subscribe(state, Overflow.latest());
+        assertEquals(before + 1, ListenerManager.getListenerCount());
+
+        Thread worker = new Thread(recorder.subscription::cancel);
+        worker.start();
+        worker.join();
+        assertEquals(before + 1, ListenerManager.getListenerCount()); // nada fechado fora da thread dona
+
+        state.set(1);
+        assertEquals(before, ListenerManager.getListenerCount());
+        recorder.subscription.request(1);
+        assertTrue(recorder.received.isEmpty());
+    }
+}
@@ -160,6 +160,34 @@ class ForEachStateTest {
         assertEquals(1, forEachState.getComponents().size());
     }
     
+    @Test
+    void getComponentsView_shouldNotCopyUntilComponentsChange() {
+        listState.set(Arrays.asList("item1", "item2"));
+        forEachState = ForEachState.of(listState, componentFactory);
+        
+        List<TestComponent> view = forEachState.getComponentsView();
+        long version = forEachState.version();
+        
+        // Mesma lista: nada muda, mesma instância
+        listState.set(Arrays.asList("item1", "item2"));
+        assertSame(view, forEachState.getComponentsView());
+        assertEquals(version, forEachState.version());
+        
+        listState.set(Arrays.asList("item1"));
+        assertNotSame(view, forEachState.getComponentsView());
+        assertEquals(version + 1, forEachState.version());
+        assertEquals(1, forEachState.componentCount());
+        assertEquals(2, view.size()); // o snapshot antigo não muda
+    }
+    
+    @Test
+    void getComponentsView_shouldBeReadOnly() {
+        listState.set(Arrays.asList("item1"));
+        forEachState = ForEachState.of(listState, componentFactory);
+        
+        assertThrows(UnsupportedOperationException.class, () -> forEachState.getComponentsView().clear());
+    }
+    
     // Interface de teste para simular componentes
     interface TestComponent {
         void setValue(String value);
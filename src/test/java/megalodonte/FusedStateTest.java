@@ -0,0 +1,79 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FusedStateTest {
+
+    @Test
+    @DisplayName("a chain should subscribe upstream once, only while observed")
+    void chain_shouldAttachOnlyWhileObserved() {
+        State<Integer> price = State.of(10);
+        int before = ListenerManager.getListenerCount();
+        ReadableState<String> label = price.map(p -> p * 2).map(p -> p + 1).map(p -> "$" + p);
+
+        assertEquals(before, ListenerManager.getListenerCount()); // nada assinado ainda
+        assertEquals("$21", label.get());
+
+        List<String> values = new ArrayList<>();
+        Subscription first = label.subscribe(values::add);
+        Subscription second = label.subscribe(values::add);
+        assertEquals(before + 3, ListenerManager.getListenerCount()); // 1 na fonte + 2 na cadeia
+
+        price.set(20);
+        first.close();
+        assertTrue(((FusedState<String>) label).isAttached());
+        second.close();
+
+        assertFalse(((FusedState<String>) label).isAttached());
+        assertEquals(before, ListenerManager.getListenerCount());
+        assertEquals(List.of("$21", "$21", "$41", "$41"), values);
+
+        price.set(30);
+        assertEquals("$61", label.get()); // sem observadores, o valor é puxado
+    }
+
+    @Test
+    @DisplayName("filter and distinct stages should drop values inside the fused node")
+    void filterAndDistinct_shouldSkipWork() {
+        State<String> symbol = State.of("PETR4:10");
+        int[] lookups = {0};
+        ReadableState<String> company = symbol
+                .map(quote -> quote.split(":")[0])
+                .distinctUntilChanged()
+                .filter(ticker -> !ticker.isEmpty())
+                .map(ticker -> {
+                    lookups[0]++;
+                    return ticker.toLowerCase();
+                });
+        List<String> values = new ArrayList<>();
+        company.subscribe(values::add);
+
+        symbol.set("PETR4:11");
+        symbol.set("PETR4:12");
+        symbol.set(":13");
+        symbol.set("VALE3:50");
+
+        assertEquals(List.of("petr4", "vale3"), values);
+        assertEquals(2, lookups[0]);
+    }
+
+    @Test
+    @DisplayName("a mapped state should work as a computed state dependency")
+    void mappedState_shouldFeedComputedState() {
+        State<Integer> quantity = State.of(2);
+        ReadableState<Integer> doubled = quantity.map(q -> q * 2);
+        ComputedState<String> summary = ComputedState.of(() -> "total " + doubled.get());
+
+        quantity.set(5);
+
+        assertEquals("total 10", summary.get());
+        summary.dispose();
+        assertFalse(((FusedState<Integer>) doubled).isAttached());
+    }
+}
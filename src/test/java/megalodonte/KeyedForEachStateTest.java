@@ -0,0 +1,166 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedForEachStateTest {
+
+    record Row(int id, String label) {
+    }
+
+    static final class RowComponent {
+        final Row row;
+
+        RowComponent(Row row) {
+            this.row = row;
+        }
+    }
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private RowComponent create(Row row) {
+        created.incrementAndGet();
+        return new RowComponent(row);
+    }
+
+    private static List<Row> rows(int count) {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row(i, "row " + i));
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("removing the first row should keep every other component")
+    void removingFirstRow_shouldKeepOtherComponents() {
+        State<List<Row>> state = State.of(rows(10_000));
+        ForEachState<Row, RowComponent> forEach = ForEachState.of(state, Row::id, this::create);
+        List<RowComponent> before = forEach.getComponents();
+        List<ListChange<RowComponent>> changes = new ArrayList<>();
+        forEach.subscribeChanges(changes::add);
+        created.set(0);
+
+        List<Row> next = new ArrayList<>(state.get());
+        next.remove(0);
+        state.set(next);
+
+        assertEquals(0, created.get());
+        assertEquals(before.subList(1, before.size()), forEach.getComponents());
+        assertEquals("REMOVED at 0 [" + before.get(0) + "]", changes.get(1).getRanges().get(0).toString());
+        assertEquals(1, changes.get(1).getRanges().size());
+    }
+
+    @Test
+    @DisplayName("moving a row to the end should be a single move")
+    void movingRowToEnd_shouldBeSingleMove() {
+        State<List<Row>> state = State.of(rows(5));
+        ForEachState<Row, RowComponent> forEach = ForEachState.of(state, Row::id, this::create);
+        List<ListChange<RowComponent>> changes = new ArrayList<>();
+        forEach.subscribeChanges(changes::add);
+
+        List<Row> next = new ArrayList<>(state.get());
+        next.add(next.remove(0));
+        state.set(next);
+
+        List<ListChange.Range<RowComponent>> ranges = changes.get(1).getRanges();
+        assertEquals(1, ranges.size());
+        assertEquals(ListChange.Type.MOVED, ranges.get(0).getType());
+        assertEquals(0, ranges.get(0).getFrom());
+        assertEquals(4, ranges.get(0).getTo());
+    }
+
+    @Test
+    @DisplayName("reversing the list should reuse every component")
+    void reversing_shouldReuseComponents() {
+        State<List<Row>> state = State.of(rows(100));
+        ForEachState<Row, RowComponent> forEach = ForEachState.of(state, Row::id, this::create);
+        List<RowComponent> before = forEach.getComponents();
+        created.set(0);
+
+        List<Row> reversed = new ArrayList<>(state.get());
+        Collections.reverse(reversed);
+        state.set(reversed);
+
+        List<RowComponent> expected = new ArrayList<>(before);
+        Collections.reverse(expected);
+        assertEquals(0, created.get());
+        assertEquals(expected, forEach.getComponents());
+    }
+
+    @Test
+    @DisplayName("a changed item with the same key should get a new component in place")
+    void changedItem_shouldBeReplaced() {
+        State<List<Row>> state = State.of(rows(3));
+        ForEachState<Row, RowComponent> forEach = ForEachState.of(state, Row::id, this::create);
+
+        List<Row> next = new ArrayList<>(state.get());
+        next.set(1, new Row(1, "edited"));
+        state.set(next);
+
+        assertEquals("edited", forEach.getComponents().get(1).row.label());
+        assertEquals(4, created.get());
+    }
+
+    @Test
+    @DisplayName("duplicate keys should be rejected")
+    void duplicateKeys_shouldThrow() {
+        State<List<Row>> state = State.of(List.of(new Row(1, "a"), new Row(1, "b")));
+
+        assertThrows(IllegalStateException.class, () -> ForEachState.of(state, Row::id, this::create));
+    }
+
+    @Test
+    @DisplayName("random shuffles, inserts and removals should stay consistent")
+    void randomChanges_shouldMatchComponentsAndChanges() {
+        Random random = new Random(3);
+        State<List<Row>> state = State.of(rows(50));
+        ForEachState<Row, RowComponent> forEach = ForEachState.of(state, Row::id, this::create);
+        List<RowComponent> mirror = new ArrayList<>();
+        forEach.subscribeChanges(change -> change.applyTo(mirror));
+        int nextId = 50;
+
+        for (int step = 0; step < 300; step++) {
+            List<Row> next = new ArrayList<>(state.get());
+            Collections.shuffle(next.subList(0, random.nextInt(next.size() + 1)), random);
+            for (int i = random.nextInt(4); i > 0 && !next.isEmpty(); i--) {
+                next.remove(random.nextInt(next.size()));
+            }
+            for (int i = random.nextInt(4); i > 0; i--) {
+                next.add(random.nextInt(next.size() + 1), new Row(nextId, "row " + nextId++));
+            }
+            state.set(next);
+
+            List<RowComponent> components = forEach.getComponents();
+            assertEquals(mirror, components);
+            for (int i = 0; i < next.size(); i++) {
+                assertEquals(next.get(i).id(), components.get(i).row.id());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a ListState without keys should follow its ranges")
+    void listStateWithoutKeys_shouldFollowRanges() {
+        ListState<Row> state = ListState.of(rows(1_000));
+        ForEachState<Row, RowComponent> forEach = ForEachState.of(state, this::create);
+        List<RowComponent> before = forEach.getComponents();
+        created.set(0);
+
+        state.remove(state.get(0));
+        state.move(0, 998);
+
+        List<RowComponent> expected = new ArrayList<>(before.subList(1, before.size()));
+        expected.add(expected.remove(0));
+        assertEquals(0, created.get());
+        assertEquals(expected, forEach.getComponents());
+    }
+}
@@ -0,0 +1,126 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListChangeTest {
+
+    @Test
+    @DisplayName("subscribeChanges() should report the current items as added")
+    void subscribeChanges_shouldReportCurrentItems() {
+        ListState<String> state = ListState.of(Arrays.asList("a", "b"));
+        List<ListChange<String>> received = new ArrayList<>();
+
+        state.subscribeChanges(received::add);
+
+        assertEquals(1, received.size());
+        ListChange.Range<String> range = received.get(0).getRanges().get(0);
+        assertEquals(ListChange.Type.ADDED, range.getType());
+        assertEquals(0, range.getFrom());
+        assertEquals(List.of("a", "b"), range.getAdded());
+    }
+
+    @Test
+    @DisplayName("each mutator should describe only the range it touched")
+    void mutators_shouldDescribeTouchedRange() {
+        ListState<String> state = ListState.of(Arrays.asList("a", "b", "c", "d"));
+        List<ListChange.Range<String>> ranges = new ArrayList<>();
+        state.subscribeChanges(change -> ranges.addAll(change.getRanges()));
+        ranges.clear();
+
+        state.add(1, "x");
+        state.set(0, "z");
+        state.move(4, 0);
+        state.remove("b");
+
+        assertEquals("ADDED at 1 [x]", ranges.get(0).toString());
+        assertEquals("REPLACED at 0 [a] -> [z]", ranges.get(1).toString());
+        assertEquals("MOVED 4 -> 0 [d]", ranges.get(2).toString());
+        assertEquals("REMOVED at 3 [b]", ranges.get(3).toString());
+        assertEquals(List.of("d", "z", "x", "c"), state.get());
+    }
+
+    @Test
+    @DisplayName("removeIf() should report one range per run of removed items")
+    void removeIf_shouldReportRuns() {
+        ListState<Integer> state = ListState.of(Arrays.asList(1, 2, 3, 4, 5, 6, 7));
+        List<ListChange<Integer>> received = new ArrayList<>();
+        state.subscribeChanges(received::add);
+
+        state.removeIf(n -> n == 2 || n == 3 || n == 6);
+
+        List<ListChange.Range<Integer>> ranges = received.get(1).getRanges();
+        assertEquals(2, ranges.size());
+        assertEquals("REMOVED at 1 [2, 3]", ranges.get(0).toString());
+        assertEquals("REMOVED at 3 [6]", ranges.get(1).toString());
+    }
+
+    @Test
+    @DisplayName("set(List) should report only the middle that differs")
+    void setList_shouldSkipCommonPrefixAndSuffix() {
+        ListState<String> state = ListState.of(Arrays.asList("a", "b", "c", "d"));
+        List<ListChange<String>> received = new ArrayList<>();
+        state.subscribeChanges(received::add);
+
+        state.set(Arrays.asList("a", "x", "y", "z", "d"));
+
+        List<ListChange.Range<String>> ranges = received.get(1).getRanges();
+        assertEquals("REPLACED at 1 [b, c] -> [x, y]", ranges.get(0).toString());
+        assertEquals("ADDED at 3 [z]", ranges.get(1).toString());
+    }
+
+    @Test
+    @DisplayName("a batch should deliver every range in a single change")
+    void batch_shouldDeliverSingleChange() {
+        ListState<String> state = ListState.of(Arrays.asList("a"));
+        List<ListChange<String>> received = new ArrayList<>();
+        state.subscribeChanges(received::add);
+
+        State.batch(() -> {
+            state.add("b");
+            state.add("c");
+            state.removeLast();
+        });
+
+        assertEquals(2, received.size());
+        ListChange<String> change = received.get(1);
+        assertEquals(3, change.getRanges().size());
+        assertEquals(List.of("a"), change.getPrevious());
+        assertEquals(List.of("a", "b"), change.getList());
+    }
+
+    @Test
+    @DisplayName("applying the changes should reproduce the list")
+    void applyingChanges_shouldReproduceList() {
+        ListState<Integer> state = ListState.of(new ArrayList<>());
+        List<Integer> mirror = new ArrayList<>();
+        state.subscribeChanges(change -> change.applyTo(mirror));
+        Random random = new Random(7);
+
+        for (int step = 0; step < 2_000; step++) {
+            int size = state.size();
+            switch (size == 0 ? 0 : random.nextInt(7)) {
+                case 0 -> state.add(random.nextInt(size + 1), step);
+                case 1 -> state.set(random.nextInt(size), step);
+                case 2 -> state.move(random.nextInt(size), random.nextInt(size));
+                case 3 -> state.removeIf(n -> n % 5 == 0);
+                case 4 -> state.removeLast();
+                case 5 -> {
+                    List<Integer> shuffled = new ArrayList<>(state.get());
+                    shuffled.add(random.nextInt(size + 1), -step);
+                    shuffled.remove(random.nextInt(shuffled.size()));
+                    state.set(shuffled);
+                }
+                default -> state.add(step);
+            }
+            assertEquals(state.get(), mirror);
+        }
+    }
+}
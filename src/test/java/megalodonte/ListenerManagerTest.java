@@ -0,0 +1,146 @@
+package megalodonte;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListenerManagerTest {
+
+    @BeforeEach
+    void setUp() {
+        ListenerManager.disposeAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ListenerManager.setWeakReferences(false);
+        ListenerManager.disposeAll();
+    }
+
+    @Test
+    @DisplayName("register() and unregister() should keep the listener count")
+    void registerAndUnregisterShouldKeepCount() {
+        Consumer<String> first = value -> { };
+        Consumer<String> second = value -> { };
+
+        ListenerManager.register(first);
+        ListenerManager.register(second);
+        ListenerManager.register(first);
+        assertEquals(3, ListenerManager.getListenerCount());
+
+        assertTrue(ListenerManager.unregister(first));
+        assertTrue(ListenerManager.unregister(first));
+        assertFalse(ListenerManager.unregister(first));
+        assertEquals(1, ListenerManager.getListenerCount());
+    }
+
+    @Test
+    @DisplayName("unregister() should compare listeners by identity")
+    void unregisterShouldUseIdentity() {
+        Consumer<String> listener = new EqualToEverything();
+
+        ListenerManager.register(listener);
+
+        assertFalse(ListenerManager.unregister(new EqualToEverything()));
+        assertTrue(ListenerManager.unregister(listener));
+    }
+
+    @Test
+    @DisplayName("dispose(owner) should close every subscription of the owner")
+    void disposeOwnerShouldCloseSubscriptions() {
+        Object screen = new Object();
+        State<String> state = State.of("a");
+        List<String> received = new ArrayList<>();
+
+        ListenerManager.register(screen, state.subscribe(received::add));
+        ListenerManager.register(screen, state.subscribe(received::add));
+        State.of("x").subscribe(value -> { });
+        assertEquals(3, ListenerManager.getListenerCount());
+
+        assertEquals(2, ListenerManager.dispose(screen));
+        state.set("b");
+
+        assertEquals(List.of("a", "a"), received);
+        assertEquals(1, ListenerManager.getListenerCount());
+        assertEquals(0, ListenerManager.dispose(screen));
+    }
+
+    @Test
+    @DisplayName("weak mode should still count live listeners")
+    void weakModeShouldCountLiveListeners() {
+        ListenerManager.setWeakReferences(true);
+        Consumer<String> listener = value -> { };
+
+        ListenerManager.register(listener);
+        assertEquals(1, ListenerManager.getListenerCount());
+
+        assertTrue(ListenerManager.unregister(listener));
+        assertEquals(0, ListenerManager.getListenerCount());
+    }
+
+    @Test
+    @DisplayName("weak mode should let an owner captured by its listener be collected")
+    void weakModeShouldReleaseCapturingOwner() throws InterruptedException {
+        ListenerManager.setWeakReferences(true);
+        WeakReference<Screen> screen = openScreen();
+
+        // As referências coletadas chegam à fila de forma assíncrona
+        for (int i = 0; i < 50 && (screen.get() != null || ListenerManager.getListenerCount() != 0); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(screen.get());
+        assertEquals(0, ListenerManager.getListenerCount());
+    }
+
+    @Test
+    @DisplayName("weak mode should still close a live owner's subscriptions on dispose")
+    void weakModeShouldDisposeLiveOwner() {
+        ListenerManager.setWeakReferences(true);
+        Screen screen = new Screen();
+        State<String> name = State.of("a");
+        ListenerManager.register(screen, name.subscribe(value -> screen.label = value));
+        System.gc();
+
+        assertEquals(1, ListenerManager.dispose(screen));
+        name.set("b");
+        assertEquals("a", screen.label);
+    }
+
+    /** Tela cujo listener a captura, num estado que some junto com ela. */
+    private static WeakReference<Screen> openScreen() {
+        Screen screen = new Screen();
+        State<String> name = State.of("a");
+        ListenerManager.register(screen, name.subscribe(value -> screen.label = value));
+        return new WeakReference<>(screen);
+    }
+
+    private static final class Screen {
+        String label;
+    }
+
+    private static final class EqualToEverything implements Consumer<String> {
+        @Override
+        public void accept(String value) {
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+}
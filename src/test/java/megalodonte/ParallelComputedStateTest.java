@@ -0,0 +1,119 @@
+package megalodonte;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelComputedStateTest {
+
+    private static final int SIBLINGS = 4;
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(SIBLINGS);
+        ComputedState.setParallelPool(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ComputedState.setParallelPool(null);
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("pure siblings should be computed at the same time and notified in order on the owner thread")
+    void pureSiblings_shouldRunInParallel() throws InterruptedException {
+        State<Integer> root = State.of(0);
+        // Só termina se todos os irmãos estiverem calculando ao mesmo tempo
+        CountDownLatch together = new CountDownLatch(SIBLINGS);
+        Thread owner = Thread.currentThread();
+        List<String> notified = new ArrayList<>();
+
+        for (int i = 0; i < SIBLINGS; i++) {
+            int factor = i + 1;
+            ComputedState<Integer> sibling = ComputedState.pure(() -> {
+                int value = root.get();
+                if (value > 0) {
+                    together.countDown();
+                    await(together);
+                }
+                return value * factor;
+            }, root);
+            sibling.subscribe(value -> {
+                assertSame(owner, Thread.currentThread());
+                notified.add(factor + "=" + value);
+            });
+        }
+        notified.clear();
+
+        root.set(10);
+
+        assertEquals(0, together.getCount());
+        assertEquals(List.of("1=10", "2=20", "3=30", "4=40"), notified);
+    }
+
+    @Test
+    @DisplayName("computed states above the parallel level should see the new values once")
+    void dependentsAbove_shouldRecomputeOnce() {
+        State<Integer> root = State.of(1);
+        ComputedState<Integer> doubled = ComputedState.pure(() -> root.get() * 2, root);
+        ComputedState<Integer> tripled = ComputedState.pure(() -> root.get() * 3, root);
+        ComputedState<String> sum = ComputedState.of(() -> doubled.get() + "+" + tripled.get(), doubled, tripled);
+        List<String> sums = new ArrayList<>();
+        sum.subscribe(sums::add);
+
+        root.set(2);
+
+        assertEquals(List.of("2+3", "4+6"), sums);
+    }
+
+    @Test
+    @DisplayName("a sibling made dirty again by another sibling's listener should only publish its final value")
+    void siblingDirtiedByListener_shouldNotPublishStaleValue() {
+        State<Integer> root = State.of(1);
+        State<Integer> extra = State.of(0);
+        ComputedState<Integer> first = ComputedState.pure(() -> root.get(), root);
+        ComputedState<Integer> second = ComputedState.pure(() -> root.get() + extra.get(), root, extra);
+        first.subscribe(value -> extra.set(value + 5));
+        List<Integer> received = new ArrayList<>();
+        second.subscribe(received::add);
+        received.clear();
+
+        root.set(500);
+
+        assertEquals(List.of(1005), received); // igual à onda sequencial
+    }
+
+    @Test
+    @DisplayName("an exception in a parallel computation should reach the caller")
+    void exceptionInParallel_shouldPropagate() {
+        State<Integer> divisor = State.of(1);
+        ComputedState.pure(() -> 10 / divisor.get(), divisor);
+        ComputedState.pure(() -> divisor.get() + 1, divisor);
+
+        assertThrows(ArithmeticException.class, () -> divisor.set(0));
+        assertThrows(IllegalArgumentException.class, () -> ComputedState.pure(() -> 1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("siblings did not run in parallel");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentVectorTest {
+
+    @Test
+    @DisplayName("random operations should match an ArrayList")
+    void randomOperationsShouldMatchArrayList() {
+        Random random = new Random(42);
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+
+        for (int step = 0; step < 40_000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || expected.isEmpty()) {
+                vector = vector.plus(step);
+                expected.add(step);
+            } else if (operation < 8) {
+                int index = random.nextInt(expected.size());
+                vector = vector.with(index, -step);
+                expected.set(index, -step);
+            } else if (operation < 9) {
+                vector = vector.minusLast();
+                expected.remove(expected.size() - 1);
+            } else if (expected.size() < 2_000) {
+                int index = random.nextInt(expected.size());
+                vector = vector.minus(index);
+                expected.remove(index);
+            }
+        }
+
+        assertEquals(expected.size(), vector.size());
+        assertEquals(expected, vector);
+        assertEquals(expected, new ArrayList<>(vector));
+        assertEquals(expected.hashCode(), vector.hashCode());
+    }
+
+    @Test
+    @DisplayName("previous versions should stay unchanged")
+    void previousVersionsShouldStayUnchanged() {
+        PersistentVector<Integer> base = PersistentVector.empty();
+        for (int i = 0; i < 1_100; i++) {
+            base = base.plus(i);
+        }
+
+        PersistentVector<Integer> appended = base.plus(1_100);
+        PersistentVector<Integer> replaced = base.with(5, -5);
+        PersistentVector<Integer> popped = base.minusLast();
+
+        assertEquals(1_100, base.size());
+        assertEquals(5, base.get(5));
+        assertEquals(1_099, base.get(1_099));
+        assertEquals(1_101, appended.size());
+        assertEquals(-5, replaced.get(5));
+        assertEquals(1_099, popped.size());
+    }
+
+    @Test
+    @DisplayName("popping down to empty should keep the vector consistent")
+    void poppingToEmptyShouldKeepConsistency() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 33 * 32 + 1; i++) {
+            vector = vector.plus(i);
+        }
+        for (int i = vector.size() - 1; i >= 0; i--) {
+            assertEquals(i, vector.get(i));
+            vector = vector.minusLast();
+        }
+
+        assertTrue(vector.isEmpty());
+        assertThrows(IllegalStateException.class, vector::minusLast);
+    }
+
+    @Test
+    @DisplayName("splices in the middle should keep the tree usable at every size")
+    void splicesShouldKeepTreeUsable() {
+        Random random = new Random(7);
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+
+        for (int step = 0; step < 3_000; step++) {
+            int from = random.nextInt(expected.size() + 1);
+            int count = random.nextInt(Math.min(40, expected.size() - from) + 1);
+            List<Integer> items = new ArrayList<>();
+            for (int i = random.nextInt(80); i > 0; i--) {
+                items.add(step * 100 + i);
+            }
+            vector = vector.splice(from, count, items);
+            expected.subList(from, from + count).clear();
+            expected.addAll(from, items);
+
+            // Depois do splice, append e pop precisam continuar achando a árvore certa
+            vector = vector.plus(-step);
+            expected.add(-step);
+            if (random.nextBoolean()) {
+                vector = vector.minusLast().minusLast();
+                expected.remove(expected.size() - 1);
+                expected.remove(expected.size() - 1);
+            }
+        }
+
+        assertEquals(expected, vector);
+        assertEquals(expected, new ArrayList<>(vector));
+    }
+
+    @Test
+    @DisplayName("vector should be read-only")
+    void vectorShouldBeReadOnly() {
+        List<String> vector = PersistentVector.from(Arrays.asList("a", "b"));
+
+        assertThrows(UnsupportedOperationException.class, () -> vector.add("c"));
+        assertThrows(UnsupportedOperationException.class, () -> vector.set(0, "c"));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(2));
+    }
+
+    @Test
+    @DisplayName("ListState snapshots should not change after mutations")
+    void listStateSnapshotsShouldNotChange() {
+        ListState<Integer> state = ListState.of(List.of());
+        for (int i = 0; i < 50_000; i++) {
+            state.add(i);
+        }
+        List<Integer> snapshot = state.get();
+
+        state.set(0, -1);
+        state.removeLast();
+
+        assertEquals(50_000, snapshot.size());
+        assertEquals(0, snapshot.get(0));
+        assertEquals(-1, state.get(0));
+        assertEquals(49_999, state.size());
+    }
+}
@@ -0,0 +1,85 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveStateTest {
+
+    @Test
+    @DisplayName("IntState should notify primitive and boxed listeners")
+    void intStateShouldNotifyPrimitiveAndBoxedListeners() {
+        IntState counter = IntState.of(1);
+        List<Integer> primitive = new ArrayList<>();
+        List<Integer> boxed = new ArrayList<>();
+        counter.subscribeAsInt(primitive::add);
+        counter.subscribe(boxed::add);
+
+        counter.increment();
+        counter.set(2);
+        counter.add(3);
+
+        assertEquals(List.of(1, 2, 5), primitive);
+        assertEquals(List.of(1, 2, 5), boxed);
+        assertEquals(5, counter.get());
+    }
+
+    @Test
+    @DisplayName("primitive map operators should follow the source")
+    void mapOperatorsShouldFollowSource() {
+        IntState quantity = IntState.of(2);
+        DoubleState total = quantity.mapToDouble(q -> q * 1.5);
+        BooleanState empty = quantity.mapToBoolean(q -> q == 0);
+        ReadableState<String> label = quantity.mapToObj(q -> q + " items");
+
+        quantity.set(0);
+
+        assertEquals(0.0, total.getAsDouble());
+        assertTrue(empty.getAsBoolean());
+        assertEquals("0 items", label.get());
+    }
+
+    @Test
+    @DisplayName("LongState should coalesce updates inside a batch")
+    void longStateShouldCoalesceInBatch() {
+        LongState bytes = LongState.of(0L);
+        List<Long> received = new ArrayList<>();
+        bytes.subscribeAsLong(received::add);
+
+        State.batch(() -> {
+            bytes.add(10);
+            bytes.add(20);
+        });
+
+        assertEquals(List.of(0L, 30L), received);
+    }
+
+    @Test
+    @DisplayName("DoubleState should treat NaN as equal to itself")
+    void doubleStateShouldTreatNaNAsEqual() {
+        DoubleState ratio = DoubleState.of(Double.NaN);
+        List<Double> received = new ArrayList<>();
+        ratio.subscribeAsDouble(received::add);
+
+        ratio.set(Double.NaN);
+
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    @DisplayName("BooleanState should toggle and be tracked by computed states")
+    void booleanStateShouldToggleAndBeTracked() {
+        BooleanState expanded = BooleanState.of(false);
+        BooleanState collapsed = expanded.not();
+        ComputedState<String> icon = ComputedState.of(() -> expanded.getAsBoolean() ? "-" : "+");
+
+        expanded.toggle();
+
+        assertFalse(collapsed.getAsBoolean());
+        assertEquals("-", icon.get());
+    }
+}
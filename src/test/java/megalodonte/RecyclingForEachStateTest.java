@@ -0,0 +1,90 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecyclingForEachStateTest {
+
+    static final class Cell {
+        String text;
+
+        Cell(String text) {
+            this.text = text;
+        }
+    }
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private Cell create(String item) {
+        created.incrementAndGet();
+        return new Cell(item);
+    }
+
+    private static List<String> items(int count) {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add("item " + i);
+        }
+        return items;
+    }
+
+    @Test
+    @DisplayName("a changed item should rebind its component instead of creating one")
+    void changedItem_shouldRebindComponent() {
+        ListState<String> state = ListState.of(items(3));
+        ForEachState<String, Cell> forEach = ForEachState.of(state, this::create)
+                .recycling((cell, item) -> cell.text = item, 10);
+        Cell second = forEach.getComponents().get(1);
+        List<ListChange<Cell>> changes = new ArrayList<>();
+        forEach.subscribeChanges(changes::add);
+
+        state.set(1, "edited");
+
+        assertSame(second, forEach.getComponents().get(1));
+        assertEquals("edited", second.text);
+        assertEquals(3, created.get());
+        assertEquals(1, changes.size()); // nada mudou na lista de componentes
+    }
+
+    @Test
+    @DisplayName("scrolling should reuse the components that left the window")
+    void scrolling_shouldReuseComponents() {
+        ListState<String> state = ListState.of(items(10_000));
+        ForEachState<String, Cell> forEach = ForEachState.windowed(state, this::create, 5)
+                .recycling((cell, item) -> cell.text = item, 20);
+        forEach.setViewport(5, 35);
+        created.set(0);
+
+        for (int first = 6; first < 5_000; first++) {
+            forEach.setViewport(first, first + 30);
+        }
+
+        assertEquals(0, created.get());
+        assertEquals("item 4994", forEach.getComponents().get(0).text);
+        assertEquals(40, forEach.getComponents().size());
+    }
+
+    @Test
+    @DisplayName("the pool should never hold more than its limit")
+    void pool_shouldBeBounded() {
+        ListState<String> state = ListState.of(items(100));
+        ForEachState<String, Cell> forEach = ForEachState.of(state, this::create)
+                .recycling((cell, item) -> cell.text = item, 8);
+
+        state.clear();
+        assertEquals(8, forEach.getPooledCount());
+
+        created.set(0);
+        state.addAll(items(10));
+
+        assertEquals(2, created.get());
+        assertEquals(0, forEach.getPooledCount());
+        assertEquals("item 9", forEach.getComponents().get(9).text);
+    }
+}
@@ -0,0 +1,105 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulerTest {
+
+    /** Fila de runLater falsa: cada pulse() executa o que foi postado. */
+    private final List<Runnable> posted = new ArrayList<>();
+    private final FxScheduler scheduler = new FxScheduler(task -> {
+        synchronized (posted) {
+            posted.add(task);
+        }
+    });
+
+    private void pulse() {
+        List<Runnable> tasks;
+        synchronized (posted) {
+            tasks = new ArrayList<>(posted);
+            posted.clear();
+        }
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    @DisplayName("sets from other threads should reach listeners once per pulse with the latest value")
+    void backgroundSets_shouldCoalesceIntoOneRunLater() throws InterruptedException {
+        State<Integer> price = State.of(0).deliverOn(scheduler);
+        State<String> status = State.of("idle").deliverOn(scheduler);
+        List<Integer> prices = new ArrayList<>();
+        List<String> statuses = new ArrayList<>();
+        price.subscribe(prices::add);
+        status.subscribe(statuses::add);
+
+        ExecutorService feed = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            feed.execute(() -> {
+                for (int i = 1; i <= 1_000; i++) {
+                    price.set(i);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        feed.shutdown();
+        price.set(5_000);
+        status.set("running");
+
+        assertEquals(1, posted.size());
+        assertEquals(List.of(0), prices); // nada entregue antes do pulso
+
+        pulse();
+
+        assertEquals(List.of(0, 5_000), prices);
+        assertEquals(List.of("idle", "running"), statuses);
+        assertTrue(posted.isEmpty());
+    }
+
+    @Test
+    @DisplayName("list mutations before a pulse should arrive as one change")
+    void listMutations_shouldArriveAsOneChange() {
+        ListState<String> items = ListState.of(List.of("a", "b", "c")).deliverOn(scheduler);
+        List<ListChange<String>> changes = new ArrayList<>();
+        items.subscribeChanges(changes::add);
+        changes.clear();
+
+        items.add("d");
+        items.remove("b");
+        items.set(0, "z");
+        assertEquals(List.of("z", "c", "d"), items.get());
+        assertTrue(changes.isEmpty());
+
+        pulse();
+
+        assertEquals(1, changes.size());
+        ListChange<String> change = changes.get(0);
+        assertEquals(List.of("a", "b", "c"), change.getPrevious());
+        List<String> patched = new ArrayList<>(change.getPrevious());
+        change.applyTo(patched);
+        assertEquals(List.of("z", "c", "d"), patched);
+    }
+
+    @Test
+    @DisplayName("states without scheduler should still notify synchronously")
+    void withoutScheduler_shouldNotifySynchronously() {
+        State<Integer> count = State.of(0);
+        List<Integer> values = new ArrayList<>();
+        count.subscribe(values::add);
+
+        count.set(1);
+
+        assertNull(count.getScheduler());
+        assertEquals(List.of(0, 1), values);
+    }
+}
@@ -0,0 +1,119 @@
+package megalodonte;
+
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import megalodonte.components.Component;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShowTest {
+
+    private int created;
+
+    private Component panel() {
+        created++;
+        return new Component(new Region());
+    }
+
+    private static Pane pane(Show show) {
+        return (Pane) show.getNode();
+    }
+
+    @Test
+    @DisplayName("without keep-alive the child should be created again on every show")
+    void withoutKeepAlive_shouldRecreateChild() {
+        State<Boolean> visible = State.of(true);
+        Show show = Show.when(visible, this::panel);
+
+        visible.set(false);
+        assertTrue(pane(show).getChildren().isEmpty());
+        visible.set(true);
+
+        assertEquals(2, created);
+    }
+
+    @Test
+    @DisplayName("with keep-alive the hidden child should be reattached")
+    void keepAlive_shouldReattachSameChild() {
+        State<Boolean> visible = State.of(true);
+        Show show = Show.when(visible, this::panel).keepAlive();
+        Node first = pane(show).getChildren().get(0);
+
+        for (int i = 0; i < 3; i++) {
+            visible.set(false);
+            assertTrue(pane(show).getChildren().isEmpty());
+            visible.set(true);
+        }
+
+        assertEquals(1, created);
+        assertSame(first, pane(show).getChildren().get(0));
+
+        visible.set(false);
+        show.evictCached();
+        visible.set(true);
+        assertEquals(2, created);
+    }
+
+    @Test
+    @DisplayName("the cache should drop the least recently detached branch and expired ones")
+    void branchCache_shouldEvictByAgeAndSize() {
+        VirtualTimeScheduler time = new VirtualTimeScheduler();
+        BranchCache<String, String> cache = new BranchCache<>(2, Duration.ofSeconds(10), time);
+
+        cache.put("a", "A");
+        time.advanceBy(Duration.ofSeconds(1));
+        cache.put("b", "B");
+        cache.put("c", "C");
+        assertNull(cache.take("a"));
+        assertEquals(2, cache.size());
+
+        time.advanceBy(Duration.ofMillis(9_500));
+        assertEquals("C", cache.take("c"));
+        time.advanceBy(Duration.ofSeconds(1));
+        cache.put("c", "C");
+        assertNull(cache.take("b")); // destacado há mais de 10 s
+        assertEquals("C", cache.take("c"));
+        assertEquals(0, cache.size());
+        assertEquals(0, time.getPendingCount()); // cache vazio, nenhum timer
+
+        assertThrows(IllegalArgumentException.class, () -> new BranchCache<>(1, Duration.ZERO, time));
+    }
+
+    @Test
+    @DisplayName("a hidden child should be released once its time to live passes")
+    void keepAlive_shouldReleaseExpiredChildWithoutToggle() {
+        VirtualTimeScheduler time = new VirtualTimeScheduler();
+        State<Boolean> visible = State.of(true);
+        List<WeakReference<Component>> children = new ArrayList<>();
+        Show show = Show.when(visible, () -> {
+            Component child = panel();
+            children.add(new WeakReference<>(child));
+            return child;
+        }).keepAlive(1, Duration.ofMinutes(5), time);
+
+        visible.set(false);
+        collectGarbage();
+        assertNotNull(children.get(0).get()); // ainda no cache
+
+        time.advanceBy(Duration.ofMinutes(5)); // sem nenhum toggle
+        collectGarbage();
+
+        assertNull(children.get(0).get());
+        assertEquals(0, time.getPendingCount());
+        assertTrue(pane(show).getChildren().isEmpty());
+    }
+
+    static void collectGarbage() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+    }
+}
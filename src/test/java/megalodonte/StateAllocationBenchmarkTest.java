@@ -0,0 +1,100 @@
+package megalodonte;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the bytes allocated by the notify path of each state type using the
+ * per-thread allocation counter of the HotSpot {@code ThreadMXBean}.
+ */
+class StateAllocationBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        var bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean,
+                "Allocation counter not available on this JVM");
+        var sunBean = (com.sun.management.ThreadMXBean) bean;
+        Assumptions.assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        return sunBean;
+    }
+
+    private static long bytesPerOperation(Runnable operation) {
+        var bean = threadBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        long after = bean.getThreadAllocatedBytes(threadId);
+
+        return (after - before) / ITERATIONS;
+    }
+
+    @Test
+    @DisplayName("State.set() should not allocate when notifying listeners")
+    void stateSetShouldNotAllocate() {
+        State<String> state = State.of("a");
+        int[] calls = new int[1];
+        state.subscribe(value -> calls[0]++);
+        state.subscribe(value -> calls[0]++);
+
+        String[] values = {"a", "b"};
+        int[] index = new int[1];
+
+        long bytes = bytesPerOperation(() -> state.set(values[++index[0] & 1]));
+
+        assertEquals(0, bytes, "bytes allocated per set()");
+        assertTrue(calls[0] > ITERATIONS);
+    }
+
+    @Test
+    @DisplayName("ListState.set() should not allocate when notifying listeners")
+    void listStateSetShouldNotAllocate() {
+        ListState<String> state = ListState.of(Arrays.asList("a"));
+        List<String> first = state.get();
+        state.set(Arrays.asList("b"));
+        List<String> second = state.get();
+        int[] calls = new int[1];
+        state.subscribe(value -> calls[0]++);
+
+        // Snapshots returned by get() are stored as they are, without copying
+        List<?>[] values = {first, second};
+        int[] index = new int[1];
+
+        @SuppressWarnings("unchecked")
+        long bytes = bytesPerOperation(() -> state.set((List<String>) values[++index[0] & 1]));
+
+        assertEquals(0, bytes, "bytes allocated per set()");
+        assertTrue(calls[0] > ITERATIONS);
+    }
+
+    @Test
+    @DisplayName("IntState.set() should not allocate on the primitive path")
+    void intStateSetShouldNotAllocate() {
+        IntState counter = IntState.of(0);
+        IntState doubled = counter.mapToInt(v -> v * 2);
+        long[] sum = new long[1];
+        doubled.subscribeAsInt(v -> sum[0] += v);
+
+        long bytes = bytesPerOperation(counter::increment);
+
+        assertEquals(0, bytes, "bytes allocated per increment()");
+        assertEquals(counter.getAsInt() * 2, doubled.getAsInt());
+    }
+}
@@ -0,0 +1,98 @@
+package megalodonte;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubscriptionTest {
+
+    @BeforeEach
+    void setUp() {
+        ListenerManager.disposeAll();
+    }
+
+    @Test
+    @DisplayName("close() should stop notifications to the listener")
+    void closeShouldStopNotifications() {
+        State<String> state = State.of("a");
+        List<String> received = new ArrayList<>();
+
+        Subscription subscription = state.subscribe(received::add);
+        state.set("b");
+        subscription.close();
+        state.set("c");
+
+        assertEquals(List.of("a", "b"), received);
+    }
+
+    @Test
+    @DisplayName("close() should be idempotent and unregister the listener once")
+    void closeShouldBeIdempotent() {
+        State<String> state = State.of("a");
+        state.subscribe(value -> { });
+        Subscription subscription = state.subscribe(value -> { });
+        assertEquals(2, ListenerManager.getListenerCount());
+
+        subscription.close();
+        subscription.close();
+
+        assertEquals(1, ListenerManager.getListenerCount());
+    }
+
+    @Test
+    @DisplayName("closing during a notification should skip the closed listener")
+    void closeDuringNotificationShouldSkipListener() {
+        State<Integer> state = State.of(0);
+        List<String> calls = new ArrayList<>();
+        Subscription[] second = new Subscription[1];
+
+        state.subscribe(value -> {
+            calls.add("first:" + value);
+            if (value == 1) {
+                second[0].close();
+            }
+        });
+        second[0] = state.subscribe(value -> calls.add("second:" + value));
+
+        state.set(1);
+
+        assertEquals(List.of("first:0", "second:0", "first:1"), calls);
+    }
+
+    @Test
+    @DisplayName("closing many subscriptions should keep remaining listeners in order")
+    void closeManyShouldKeepRemainingListeners() {
+        ListState<String> state = ListState.of(List.of());
+        List<Integer> calls = new ArrayList<>();
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int id = i;
+            subscriptions.add(state.subscribe(list -> calls.add(id)));
+        }
+        for (int i = 0; i < 10; i += 2) {
+            subscriptions.get(i).close();
+        }
+        calls.clear();
+
+        state.add("x");
+
+        assertEquals(List.of(1, 3, 5, 7, 9), calls);
+    }
+
+    @Test
+    @DisplayName("ComputedState.dispose() should detach from dependencies")
+    void computedDisposeShouldDetachFromDependencies() {
+        State<Integer> a = State.of(1);
+        ComputedState<Integer> doubled = ComputedState.of(() -> a.get() * 2, a);
+
+        doubled.dispose();
+        a.set(5);
+
+        assertEquals(2, doubled.get());
+    }
+}
@@ -0,0 +1,101 @@
+package megalodonte;
+
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import megalodonte.components.Component;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwitchTest {
+
+    private final List<String> created = new ArrayList<>();
+
+    private Supplier<Component> page(String name) {
+        return () -> {
+            created.add(name);
+            Region region = new Region();
+            region.setId(name);
+            return new Component(region);
+        };
+    }
+
+    private static String shown(Component component) {
+        List<Node> children = ((Pane) component.getNode()).getChildren();
+        return children.isEmpty() ? null : children.get(0).getId();
+    }
+
+    @Test
+    @DisplayName("switching back should reattach the cached branch")
+    void switchingBack_shouldReuseBranch() {
+        State<String> tab = State.of("products");
+        Switch<String> content = Switch.on(tab)
+                .match("products", page("products"))
+                .match("orders", page("orders"))
+                .otherwise(page("empty"));
+        Node products = ((Pane) content.getNode()).getChildren().get(0);
+
+        tab.set("orders");
+        assertEquals("orders", shown(content));
+        tab.set("products");
+        tab.set("unknown");
+        tab.set("other");
+        tab.set("products");
+
+        assertEquals(List.of("products", "orders", "empty"), created);
+        assertSame(products, ((Pane) content.getNode()).getChildren().get(0));
+        assertEquals(1, ((Pane) content.getNode()).getChildren().size());
+    }
+
+    @Test
+    @DisplayName("a value without branch should show nothing")
+    void unmatchedValue_withoutOtherwise_shouldShowNothing() {
+        State<Integer> step = State.of(1);
+        Switch<Integer> wizard = Switch.on(step).match(1, page("one"));
+
+        step.set(2);
+        assertNull(shown(wizard));
+        step.set(1);
+
+        assertEquals("one", shown(wizard));
+        assertEquals(List.of("one"), created);
+    }
+
+    @Test
+    @DisplayName("a bounded cache should rebuild the evicted branches")
+    void boundedCache_shouldRebuildEvictedBranch() {
+        State<String> tab = State.of("a");
+        Switch<String> content = Switch.on(tab).cache(1, null)
+                .match("a", page("a"))
+                .match("b", page("b"))
+                .match("c", page("c"));
+
+        tab.set("b");
+        tab.set("c"); // "a" é descartado, "b" fica no cache
+        tab.set("b");
+        tab.set("a");
+
+        assertEquals(List.of("a", "b", "c", "a"), created);
+    }
+
+    @Test
+    @DisplayName("Show with a false branch should swap between both children")
+    void showWithFalseBranch_shouldSwapChildren() {
+        State<Boolean> loggedIn = State.of(false);
+        Show show = Show.when(loggedIn, page("home"), page("login")).keepAlive();
+
+        assertEquals("login", shown(show));
+        loggedIn.set(true);
+        assertEquals("home", shown(show));
+        loggedIn.set(false);
+        loggedIn.set(true);
+
+        assertEquals(List.of("login", "home"), created);
+    }
+}
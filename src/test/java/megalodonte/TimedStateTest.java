@@ -0,0 +1,128 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedStateTest {
+
+    private static final Duration MS_100 = Duration.ofMillis(100);
+
+    private final VirtualTimeScheduler time = new VirtualTimeScheduler();
+
+    private static <T> List<T> record(ReadableState<T> state) {
+        List<T> values = new ArrayList<>();
+        state.subscribe(values::add);
+        values.clear();
+        return values;
+    }
+
+    private void advance(long millis) {
+        time.advanceBy(Duration.ofMillis(millis));
+    }
+
+    @Test
+    @DisplayName("debounce should collapse a burst into one update after the quiet period")
+    void debounce_shouldEmitOnceAfterQuietPeriod() {
+        State<String> search = State.of("");
+        ReadableState<String> query = search.debounce(MS_100, time);
+        int[] filtered = {0};
+        ComputedState<Integer> rows = ComputedState.of(() -> {
+            filtered[0]++;
+            return query.get().length();
+        }, query);
+        List<String> values = record(query);
+
+        for (String text : new String[]{"m", "me", "meg", "mega"}) {
+            search.set(text);
+            advance(50);
+        }
+        assertTrue(values.isEmpty());
+
+        advance(50);
+
+        assertEquals(List.of("mega"), values);
+        assertEquals(2, filtered[0]); // cálculo inicial + um por rajada
+        assertEquals(4, rows.get());
+        assertEquals(0, time.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("throttle should pass the first change and the last of each window")
+    void throttle_shouldLimitRate() {
+        State<Integer> clicks = State.of(0);
+        List<Integer> values = record(clicks.throttle(MS_100, time));
+
+        clicks.set(1);
+        clicks.set(2);
+        clicks.set(3);
+        assertEquals(List.of(1), values);
+
+        advance(100);
+        assertEquals(List.of(1, 3), values);
+        clicks.set(4); // ainda dentro da janela aberta pelo 3
+        advance(100);
+        advance(100);
+        clicks.set(5);
+
+        assertEquals(List.of(1, 3, 4, 5), values);
+    }
+
+    @Test
+    @DisplayName("sample should emit the latest value on each tick that saw a change")
+    void sample_shouldEmitOnTicks() {
+        State<Integer> price = State.of(0);
+        List<Integer> values = record(price.sample(MS_100, time));
+
+        advance(30);
+        price.set(1);
+        price.set(2);
+        advance(69);
+        assertTrue(values.isEmpty());
+        advance(1); // tique em 100 ms
+        assertEquals(List.of(2), values);
+
+        advance(250);
+        assertEquals(0, time.getPendingCount()); // sem mudanças, sem timers
+        price.set(3);
+        advance(49);
+        assertEquals(List.of(2), values);
+        advance(1); // tique em 400 ms
+
+        assertEquals(List.of(2, 3), values);
+        assertThrows(IllegalArgumentException.class, () -> price.sample(Duration.ZERO, time));
+    }
+
+    @Test
+    @DisplayName("closing the last subscription should release the source and cancel timers")
+    void closingLastSubscription_shouldReleaseSource() {
+        State<Integer> price = State.of(0);
+        int before = ListenerManager.getListenerCount();
+        ReadableState<Integer> sampled = price.sample(MS_100, time);
+        ReadableState<Integer> debounced = price.debounce(MS_100, time);
+        assertEquals(before, ListenerManager.getListenerCount()); // nada assinado ainda
+
+        List<Integer> values = new ArrayList<>();
+        Subscription sampling = sampled.subscribe(values::add);
+        Subscription debouncing = debounced.subscribe(values::add);
+        price.set(1);
+        assertEquals(2, time.getPendingCount());
+
+        sampling.close();
+        debouncing.close();
+        debouncing.close();
+
+        assertFalse(((TimedState<Integer>) sampled).isAttached());
+        assertEquals(before, ListenerManager.getListenerCount());
+        assertEquals(0, time.getPendingCount());
+        price.set(2);
+        advance(500);
+        assertEquals(List.of(0, 0), values);
+        assertEquals(2, sampled.get()); // sem observadores, o valor é o da fonte
+    }
+}
@@ -0,0 +1,121 @@
+package megalodonte;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedForEachStateTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private String render(Integer item) {
+        created.incrementAndGet();
+        return "item " + item;
+    }
+
+    private static List<Integer> numbers(int count) {
+        List<Integer> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(i);
+        }
+        return numbers;
+    }
+
+    @Test
+    @DisplayName("only the viewport plus overscan should be materialized")
+    void shouldMaterializeOnlyWindow() {
+        ListState<Integer> state = ListState.of(numbers(200_000));
+        ForEachState<Integer, String> forEach = ForEachState.windowed(state, this::render, 10);
+
+        assertEquals(10, created.get());
+        assertEquals(200_000, forEach.getItemCount());
+
+        forEach.setViewport(1_000, 1_020);
+
+        assertEquals(990, forEach.getWindowStart());
+        assertEquals(40, forEach.getComponents().size());
+        assertEquals("item 990", forEach.getComponents().get(0));
+        assertEquals(50, created.get());
+    }
+
+    @Test
+    @DisplayName("scrolling by one row should create and drop one component")
+    void scrollingByOne_shouldShiftEdges() {
+        ListState<Integer> state = ListState.of(numbers(1_000));
+        ForEachState<Integer, String> forEach = ForEachState.windowed(state, this::render, 5);
+        forEach.setViewport(100, 120);
+        List<ListChange<String>> changes = new ArrayList<>();
+        forEach.subscribeChanges(changes::add);
+        created.set(0);
+
+        forEach.setViewport(101, 121);
+
+        assertEquals(1, created.get());
+        List<ListChange.Range<String>> ranges = changes.get(1).getRanges();
+        assertEquals("REMOVED at 0 [item 95]", ranges.get(0).toString());
+        assertEquals("ADDED at 29 [item 125]", ranges.get(1).toString());
+        assertEquals(96, forEach.getWindowStart());
+    }
+
+    @Test
+    @DisplayName("list changes should only affect the window")
+    void listChanges_shouldOnlyAffectWindow() {
+        ListState<Integer> state = ListState.of(numbers(1_000));
+        ForEachState<Integer, String> forEach = ForEachState.windowed(state, Integer::intValue, this::render, 2);
+        forEach.setViewport(500, 504);
+        created.set(0);
+
+        state.set(0, -1);
+        assertEquals(0, created.get());
+
+        state.remove(Integer.valueOf(-1));
+        assertEquals(1, created.get()); // a janela [498, 506) ganha o item 506
+        assertEquals("item 499", forEach.getComponents().get(0));
+    }
+
+    @Test
+    @DisplayName("random scrolling and edits should keep the window consistent")
+    void randomScrollingAndEdits_shouldStayConsistent() {
+        Random random = new Random(11);
+        ListState<Integer> state = ListState.of(numbers(500));
+        ForEachState<Integer, String> forEach = ForEachState.windowed(state, this::render, 3);
+        List<String> mirror = new ArrayList<>();
+        forEach.subscribeChanges(change -> change.applyTo(mirror));
+        int nextItem = 500;
+
+        for (int step = 0; step < 500; step++) {
+            if (random.nextBoolean()) {
+                int from = random.nextInt(state.size() + 1);
+                forEach.setViewport(from, Math.min(state.size(), from + random.nextInt(30)));
+            } else if (random.nextBoolean() && state.size() > 0) {
+                state.remove(state.get(random.nextInt(state.size())));
+            } else {
+                state.add(random.nextInt(state.size() + 1), nextItem++);
+            }
+
+            List<String> expected = new ArrayList<>();
+            int start = forEach.getWindowStart();
+            for (int i = start; i < start + forEach.getComponents().size(); i++) {
+                expected.add("item " + state.get(i));
+            }
+            assertEquals(expected, forEach.getComponents());
+            assertEquals(expected, mirror);
+        }
+    }
+
+    @Test
+    @DisplayName("setViewport() should be rejected when not windowed")
+    void setViewport_whenNotWindowed_shouldThrow() {
+        ForEachState<Integer, String> forEach = ForEachState.of(ListState.of(numbers(3)), this::render);
+
+        assertThrows(IllegalStateException.class, () -> forEach.setViewport(0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> ForEachState.windowed(ListState.of(numbers(3)), this::render, -1));
+    }
+}